@@ -0,0 +1,328 @@
+package com.example.notification.config;
+
+import com.example.notification.model.NotificationType;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "notification")
+@Getter
+@Setter
+public class NotificationProperties {
+
+    private Bulk bulk = new Bulk();
+
+    private Outbox outbox = new Outbox();
+
+    private Inbox inbox = new Inbox();
+
+    private Channels channels = new Channels();
+
+    private Retry retry = new Retry();
+
+    private UserCache userCache = new UserCache();
+
+    private Idempotency idempotency = new Idempotency();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private Scheduling scheduling = new Scheduling();
+
+    private Logging logging = new Logging();
+
+    private Push push = new Push();
+
+    private Templates templates = new Templates();
+
+    private Fanout fanout = new Fanout();
+
+    private Retention retention = new Retention();
+
+    @Getter
+    @Setter
+    public static class Bulk {
+        // Upper bound on the number of items accepted by a single bulk request
+        private int maxSize = 10000;
+    }
+
+    @Getter
+    @Setter
+    public static class RateLimit {
+        // Users whose buckets are kept in memory; least recently used ones are dropped beyond this
+        private long maxTrackedUsers = 100000;
+
+        // Buckets idle this long are dropped; by then they would have refilled anyway
+        private long idleExpirySeconds = 600;
+
+        // Coalesced notifications folded into digests per transaction
+        private int digestBatchSize = 500;
+
+        // Notifications listed individually in a digest before it switches to "and N more"
+        private int digestMaxItems = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Scheduling {
+        // Resolution of the in-memory timing wheel, and buckets per wheel level
+        private long tickMs = 100;
+
+        private int wheelSize = 64;
+
+        // Scheduled notifications due within this window are loaded from the database into the timing wheel
+        private long horizonSeconds = 300;
+
+        // How often the next part of the horizon is loaded, and rows read per query
+        private long loadIntervalMs = 10000;
+
+        private int loadBatchSize = 1000;
+
+        // Upper bound on notifications held in the wheel; the rest wait in the database for a later load
+        private int maxInMemory = 1000000;
+
+        // Due notifications released to the outbox per transaction, and at most this many per second overall,
+        // so a popular send time is spread out instead of hitting the broker at once
+        private int releaseBatchSize = 500;
+
+        private int maxReleasePerSecond = 5000;
+
+        // Rows still SCHEDULED this long after their time (e.g. held by a node that stopped) are released
+        // straight from the database
+        private long overdueGraceSeconds = 60;
+    }
+
+    @Getter
+    @Setter
+    public static class Push {
+        // Events queued per connection; a client that falls this far behind is disconnected and reloads its inbox
+        private int bufferSize = 256;
+
+        // Open connections per user; opening another closes the oldest
+        private int maxSessionsPerUser = 5;
+
+        // Connections are closed after this long and the client reconnects
+        private long sessionTimeoutMs = 1800000;
+
+        // Comment lines sent on idle connections so proxies keep them open and dead ones are detected
+        private long heartbeatIntervalMs = 25000;
+
+        // Publish notifications for users with no connection on this node to the other nodes. Every in-app
+        // delivery to an offline user then costs a publish and one consume per node, so enable it only when
+        // clients connect to more than one node.
+        private boolean clusterBroadcast = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Logging {
+        // Lifecycle lines of one in this many notifications are logged at INFO, chosen by ID so creation and
+        // delivery of the same notification are both kept; the rest only at DEBUG. 0 disables sampling.
+        private long sampleEvery = 1000;
+
+        // Interval between activity summary lines
+        private long summaryIntervalMs = 60000;
+    }
+
+    @Getter
+    @Setter
+    public static class Idempotency {
+        // Most recently used idempotency keys remembered in memory; older keys fall back to the unique index
+        private long recentKeys = 100000;
+    }
+
+    @Getter
+    @Setter
+    public static class UserCache {
+        // Entries kept in the in-process user near-cache before least-recently-used ones are evicted
+        private long maxSize = 10000;
+        // Upper bound on how stale a cached user can be; preference updates on this node invalidate immediately
+        private long ttlSeconds = 300;
+    }
+
+    @Getter
+    @Setter
+    public static class Fanout {
+        // Users per bulk create; each chunk is one transaction
+        private int chunkSize = 500;
+        // Chunks of one job created at the same time, each holding a database connection
+        private int parallelism = 4;
+        // Jobs one node runs at a time
+        private int maxConcurrentJobs = 1;
+        private long pollIntervalMs = 1000;
+        // A job whose node stops renewing this long after its last checkpoint is resumed by another node
+        private long leaseMs = 60000;
+        // Failed runs before a job is marked FAILED
+        private int maxAttempts = 5;
+        // Wait before a failed job can be claimed again, doubled on each further failure
+        private long retryBackoffMs = 10000;
+        // Largest explicit user ID list a USER_IDS job may carry
+        private int maxUserIds = 100000;
+        private long progressLogIntervalMs = 10000;
+    }
+
+    @Getter
+    @Setter
+    public static class Retention {
+        // Moves terminal notifications to the archive table; off keeps them in the notifications table
+        private boolean enabled = true;
+        // Age, from creation, at which SENT, FAILED, SUPPRESSED and DIGESTED notifications are archived
+        private int archiveAfterDays = 30;
+        // Rows moved per transaction
+        private int batchSize = 1000;
+        // Bounds one run so a large first backlog is worked off over several runs
+        private int maxBatchesPerRun = 100;
+        private long intervalMs = 60000;
+    }
+
+    @Getter
+    @Setter
+    public static class Templates {
+        // Compiled templates kept in memory; templates are immutable, so entries never go stale
+        private long cacheSize = 1000;
+        // Largest variables map a notification may carry
+        private int maxVariables = 32;
+    }
+
+    @Getter
+    @Setter
+    public static class Inbox {
+        // Largest page a client may request from the inbox API
+        private int maxPageSize = 200;
+    }
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        // Maximum number of events published per relay transaction
+        private int batchSize = 500;
+
+        // How long to wait for the broker to confirm a batch
+        private long confirmTimeoutMs = 5000;
+
+        // How long published events are kept before being purged
+        private int retentionHours = 24;
+    }
+
+    @Getter
+    @Setter
+    public static class Retry {
+        // Transient failures after which a notification is marked FAILED
+        private int maxRetryCount = 3;
+
+        // Exponential backoff: initialDelay * multiplier^(retryCount - 1), capped at maxDelay
+        private long initialDelayMs = 1000;
+
+        private double multiplier = 2.0;
+
+        private long maxDelayMs = 300000;
+
+        // Due RETRY rows claimed and requeued per transaction by the retry sweep
+        private int sweepChunkSize = 500;
+    }
+
+    // Listener and sender settings for each channel, so channels can be scaled independently
+    @Getter
+    @Setter
+    public static class Channels {
+        private Channel email = new Channel();
+
+        private Channel sms = new Channel();
+
+        private Channel inApp = new Channel();
+
+        public Channel get(NotificationType type) {
+            return switch (type) {
+                case EMAIL -> email;
+                case SMS -> sms;
+                case IN_APP -> inApp;
+            };
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Channel {
+        // Maximum number of notification IDs handed to the listener at once
+        private int batchSize = 50;
+
+        // How long a consumer waits for more messages before delivering a partial batch
+        private long receiveTimeoutMs = 100;
+
+        // Consumers started per listener, scaled up to maxConcurrency under load
+        private int concurrency = 4;
+
+        private int maxConcurrency = 16;
+
+        // Unacked messages the broker may push to each consumer; never lower than batchSize
+        private int prefetch = 250;
+
+        // Run consumers on virtual threads so blocking sends do not pin platform threads
+        private boolean virtualThreads = false;
+
+        // Sends that may be outstanding at the provider at the same time
+        private int maxInFlight = 100;
+
+        // Sends still pending after this long are treated as transient failures
+        private long sendTimeoutMs = 10000;
+
+        // Notifications submitted to the provider per call, and how long to wait to fill a call
+        private int providerBatchSize = 50;
+
+        private long providerBatchDelayMs = 20;
+
+        // Round-trip latency of the simulated provider
+        private long providerLatencyMs = 50;
+
+        // Notifications per user per minute on this channel before further ones are coalesced into a
+        // digest (0 disables the limit), and how many may be sent back to back
+        private int rateLimitPerMinute = 0;
+
+        private int rateLimitBurst = 1;
+
+        // Listener and in-flight settings for HIGH priority notifications on this channel
+        private Lane priorityLane = new Lane();
+
+        // Stops calling the provider while most recent calls to it fail
+        private Breaker circuitBreaker = new Breaker();
+    }
+
+    @Getter
+    @Setter
+    public static class Breaker {
+        private boolean enabled = true;
+
+        // Percentage of transient failures among the last slidingWindowSize calls that opens the circuit,
+        // once at least minimumCalls have been made
+        private int failureRateThreshold = 50;
+
+        private int slidingWindowSize = 100;
+
+        private int minimumCalls = 20;
+
+        // How long an open circuit rejects calls before letting halfOpenProbes through to test the provider
+        private long openDurationMs = 30000;
+
+        private int halfOpenProbes = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class Lane {
+        // Small batches and a short receive timeout: a HIGH notification should not wait for a batch to fill
+        private int batchSize = 10;
+
+        private long receiveTimeoutMs = 10;
+
+        private int concurrency = 2;
+
+        private int maxConcurrency = 8;
+
+        private int prefetch = 10;
+
+        // Provider sends reserved for this lane, on top of the channel's maxInFlight, so a backlog
+        // in the standard queue cannot take every permit
+        private int maxInFlight = 20;
+    }
+}
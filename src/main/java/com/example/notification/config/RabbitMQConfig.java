@@ -1,21 +1,118 @@
 package com.example.notification.config;
 
+import com.example.notification.model.NotificationPriority;
+import com.example.notification.model.NotificationType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 
 @Configuration
 public class RabbitMQConfig {
 
+    // Notifications are published to this exchange with their NotificationType as routing key,
+    // suffixed with ".HIGH" for HIGH priority
+    public static final String NOTIFICATION_EXCHANGE = "notification.exchange";
+    public static final String EMAIL_QUEUE = "notification.email.queue";
+    public static final String SMS_QUEUE = "notification.sms.queue";
+    public static final String IN_APP_QUEUE = "notification.in_app.queue";
+    public static final String EMAIL_PRIORITY_QUEUE = "notification.email.priority.queue";
+    public static final String SMS_PRIORITY_QUEUE = "notification.sms.priority.queue";
+    public static final String IN_APP_PRIORITY_QUEUE = "notification.in_app.priority.queue";
+
+    // In-app notifications for users connected to another node are fanned out to every node's push queue
+    public static final String PUSH_EXCHANGE = "notification.push.exchange";
+
+    public static String queueName(NotificationType type) {
+        return switch (type) {
+            case EMAIL -> EMAIL_QUEUE;
+            case SMS -> SMS_QUEUE;
+            case IN_APP -> IN_APP_QUEUE;
+        };
+    }
+
+    public static String priorityQueueName(NotificationType type) {
+        return switch (type) {
+            case EMAIL -> EMAIL_PRIORITY_QUEUE;
+            case SMS -> SMS_PRIORITY_QUEUE;
+            case IN_APP -> IN_APP_PRIORITY_QUEUE;
+        };
+    }
+
+    public static String routingKey(NotificationType type, NotificationPriority priority) {
+        return priority == NotificationPriority.HIGH ? type.name() + ".HIGH" : type.name();
+    }
+
+    @Bean
+    public DirectExchange notificationExchange() {
+        return new DirectExchange(NOTIFICATION_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Declarables channelQueues(DirectExchange notificationExchange) {
+        Declarables declarables = new Declarables();
+        for (NotificationType type : NotificationType.values()) {
+            // Declare the queue as durable (survives broker restart)
+            Queue queue = new Queue(queueName(type), true);
+            Binding binding = BindingBuilder.bind(queue).to(notificationExchange)
+                    .with(routingKey(type, NotificationPriority.NORMAL));
+            declarables.getDeclarables().add(queue);
+            declarables.getDeclarables().add(binding);
+
+            // A separate queue rather than x-max-priority: prefetched messages are already at the consumer,
+            // so broker-side priorities cannot overtake a full prefetch of standard traffic
+            Queue priorityQueue = new Queue(priorityQueueName(type), true);
+            Binding priorityBinding = BindingBuilder.bind(priorityQueue).to(notificationExchange)
+                    .with(routingKey(type, NotificationPriority.HIGH));
+            declarables.getDeclarables().add(priorityQueue);
+            declarables.getDeclarables().add(priorityBinding);
+        }
+        return declarables;
+    }
+
+    // The push relay beans below exist only with notification.push.cluster-broadcast=true, so a single node does not
+    // hold a queue and consumer it never uses
     @Bean
-    public Queue notificationQueue() {
-        // Declare the queue as durable (survives broker restart)
-        return new Queue("notification.queue", true);
+    @ConditionalOnProperty(name = "notification.push.cluster-broadcast", havingValue = "true")
+    public FanoutExchange pushExchange() {
+        return new FanoutExchange(PUSH_EXCHANGE, true, false);
+    }
+
+    // Server-named, exclusive and auto-deleted: one per node, gone with the node, so nothing builds up for it
+    @Bean
+    @ConditionalOnProperty(name = "notification.push.cluster-broadcast", havingValue = "true")
+    public Queue pushQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "notification.push.cluster-broadcast", havingValue = "true")
+    public Binding pushBinding(Queue pushQueue, FanoutExchange pushExchange) {
+        return BindingBuilder.bind(pushQueue).to(pushExchange);
     }
 
     @Bean
@@ -28,6 +125,8 @@ public class RabbitMQConfig {
         CachingConnectionFactory connectionFactory = new CachingConnectionFactory("localhost");
         connectionFactory.setUsername("guest");
         connectionFactory.setPassword("guest");
+        // Lets the outbox relay wait for broker confirms on a whole batch at once
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.SIMPLE);
         return connectionFactory;
     }
 
@@ -42,4 +141,139 @@ public class RabbitMQConfig {
         rabbitTemplate.setMessageConverter(messageConverter());
         return rabbitTemplate;
     }
-}
\ No newline at end of file
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory emailListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationProperties properties) {
+        return listenerContainerFactory(configurer, connectionFactory, properties.getChannels().getEmail());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory emailPriorityListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationProperties properties) {
+        return priorityListenerContainerFactory(configurer, connectionFactory, properties.getChannels().getEmail());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory smsListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationProperties properties) {
+        return listenerContainerFactory(configurer, connectionFactory, properties.getChannels().getSms());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory smsPriorityListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationProperties properties) {
+        return priorityListenerContainerFactory(configurer, connectionFactory, properties.getChannels().getSms());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory inAppListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationProperties properties) {
+        return listenerContainerFactory(configurer, connectionFactory, properties.getChannels().getInApp());
+    }
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory inAppPriorityListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationProperties properties) {
+        return priorityListenerContainerFactory(configurer, connectionFactory, properties.getChannels().getInApp());
+    }
+
+    // Picked up by Boot's listener configurer as the recoverer once spring.rabbitmq.listener.simple.retry.max-attempts
+    // are used up. Rejects the whole batch without requeueing it, where the default recoverer only handles single
+    // messages and would let the batch be acked.
+    @Bean
+    public MessageRecoverer batchRejectingRecoverer() {
+        return (MessageBatchRecoverer) (messages, cause) -> {
+            throw new ListenerExecutionFailedException("Retries exhausted for a batch of " + messages.size(),
+                    new AmqpRejectAndDontRequeueException(cause), messages.toArray(new Message[0]));
+        };
+    }
+
+    // Pushes are best effort: no batching and no redelivery, the inbox already has the notification
+    @Bean
+    @ConditionalOnProperty(name = "notification.push.cluster-broadcast", havingValue = "true")
+    public SimpleRabbitListenerContainerFactory pushListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        factory.setAcknowledgeMode(AcknowledgeMode.NONE);
+        factory.setPrefetchCount(250);
+        return factory;
+    }
+
+    // Exposes the ready message count of each channel queue as notification.queue.backlog{channel=...,lane=...}
+    @Bean
+    public MeterBinder queueBacklogMetrics(RabbitAdmin rabbitAdmin) {
+        return registry -> {
+            for (NotificationType type : NotificationType.values()) {
+                registerBacklog(registry, rabbitAdmin, type, "standard", queueName(type));
+                registerBacklog(registry, rabbitAdmin, type, "priority", priorityQueueName(type));
+            }
+        };
+    }
+
+    private static void registerBacklog(MeterRegistry registry, RabbitAdmin rabbitAdmin, NotificationType type,
+                                        String lane, String queue) {
+        Gauge.builder("notification.queue.backlog", rabbitAdmin, admin -> backlog(admin, queue))
+                .description("Messages waiting in the channel queue")
+                .tag("channel", type.name())
+                .tag("lane", lane)
+                .register(registry);
+    }
+
+    private SimpleRabbitListenerContainerFactory listenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationProperties.Channel channel) {
+        return listenerContainerFactory(configurer, connectionFactory, channel.getBatchSize(), channel.getReceiveTimeoutMs(),
+                channel.getConcurrency(), channel.getMaxConcurrency(), channel.getPrefetch(), channel.isVirtualThreads());
+    }
+
+    private SimpleRabbitListenerContainerFactory priorityListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            NotificationProperties.Channel channel) {
+        NotificationProperties.Lane lane = channel.getPriorityLane();
+        return listenerContainerFactory(configurer, connectionFactory, lane.getBatchSize(), lane.getReceiveTimeoutMs(),
+                lane.getConcurrency(), lane.getMaxConcurrency(), lane.getPrefetch(), channel.isVirtualThreads());
+    }
+
+    private SimpleRabbitListenerContainerFactory listenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            int batchSize, long receiveTimeoutMs, int concurrency, int maxConcurrency, int prefetch,
+            boolean virtualThreads) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        // spring.rabbitmq.listener.simple.* first (retry advice, acknowledge mode), then the per-channel settings
+        configurer.configure(factory, connectionFactory);
+        factory.setMessageConverter(messageConverter());
+        // Consumers collect up to batchSize messages (or until receiveTimeout) and ack them together
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("notification-consumer-");
+            executor.setVirtualThreads(true);
+            factory.setTaskExecutor(executor);
+        }
+        return factory;
+    }
+
+    private static double backlog(RabbitAdmin rabbitAdmin, String queue) {
+        try {
+            QueueInformation info = rabbitAdmin.getQueueInfo(queue);
+            return info == null ? Double.NaN : info.getMessageCount();
+        } catch (Exception e) {
+            // Broker unreachable
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.notification.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class SenderConfig {
+
+    // Provider calls block on I/O, so every in-flight send gets its own virtual thread.
+    // Not a default candidate so it does not replace Boot's applicationTaskExecutor.
+    @Bean(destroyMethod = "close", defaultCandidate = false)
+    public ExecutorService channelSenderExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
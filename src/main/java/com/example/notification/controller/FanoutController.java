@@ -0,0 +1,30 @@
+package com.example.notification.controller;
+
+import com.example.notification.dto.FanoutRequest;
+import com.example.notification.model.FanoutJob;
+import com.example.notification.service.FanoutService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/fanout")
+public class FanoutController {
+
+    private final FanoutService fanoutService;
+
+    public FanoutController(FanoutService fanoutService) {
+        this.fanoutService = fanoutService;
+    }
+
+    // Accepted for background processing; poll the job for progress
+    @PostMapping
+    public ResponseEntity<FanoutJob> createJob(@RequestBody FanoutRequest request) {
+        return new ResponseEntity<>(fanoutService.createJob(request), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<FanoutJob> getJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(fanoutService.getJob(jobId));
+    }
+}
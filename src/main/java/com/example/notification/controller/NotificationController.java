@@ -1,12 +1,19 @@
 package com.example.notification.controller;
 
+import com.example.notification.dto.BulkNotificationResult;
+import com.example.notification.dto.InboxPage;
 import com.example.notification.dto.NotificationRequest;
+import com.example.notification.dto.UnreadCount;
 import com.example.notification.model.Notification;
 import com.example.notification.service.NotificationService;
+import com.example.notification.service.PushSessionRegistry;
+import com.example.notification.service.UserCache;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -15,21 +22,74 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final PushSessionRegistry pushSessions;
+    private final UserCache userCache;
 
     // Manually written constructor (instead of @RequiredArgsConstructor)
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, PushSessionRegistry pushSessions,
+                                  UserCache userCache) {
         this.notificationService = notificationService;
+        this.pushSessions = pushSessions;
+        this.userCache = userCache;
     }
 
     @PostMapping("/notifications")
-    public ResponseEntity<Notification> sendNotification(@Valid @RequestBody NotificationRequest request) {
+    public ResponseEntity<Notification> sendNotification(@Valid @RequestBody NotificationRequest request,
+                                                         @RequestHeader(value = "Idempotency-Key", required = false)
+                                                         String idempotencyKey) {
+        // The header takes precedence over a key in the body
+        if (idempotencyKey != null) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
         Notification notification = notificationService.createNotification(request);
         return new ResponseEntity<>(notification, HttpStatus.CREATED);
     }
 
+    @PostMapping("/notifications/bulk")
+    public ResponseEntity<List<BulkNotificationResult>> sendNotifications(@RequestBody List<NotificationRequest> requests) {
+        List<BulkNotificationResult> results = notificationService.createNotifications(requests);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/users/{userId}/notifications")
-    public ResponseEntity<List<Notification>> getUserNotifications(@PathVariable Long userId) {
-        List<Notification> notifications = notificationService.getUserNotifications(userId);
-        return ResponseEntity.ok(notifications);
+    public ResponseEntity<InboxPage> getUserNotifications(@PathVariable Long userId,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "50") int limit,
+                                                          @RequestParam(defaultValue = "false") boolean includeArchived) {
+        InboxPage page = notificationService.getUserNotifications(userId, cursor, limit, includeArchived);
+        return ResponseEntity.ok(page);
+    }
+
+    // Server-sent events, one "notification" event per in-app notification delivered while connected. Clients load
+    // the inbox once after (re)connecting to catch up, then rely on the stream instead of polling.
+    @GetMapping(value = "/users/{userId}/notifications/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(@PathVariable Long userId) {
+        // Sessions are only held for users that exist. A bare 404, since an error body cannot be written to a
+        // client that only accepts text/event-stream.
+        if (userCache.get(userId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(pushSessions.open(userId).getEmitter());
+    }
+
+    @GetMapping("/users/{userId}/notifications/unread-count")
+    public ResponseEntity<UnreadCount> getUnreadCount(@PathVariable Long userId) {
+        return ResponseEntity.ok(notificationService.getUnreadCount(userId));
+    }
+
+    @PostMapping("/users/{userId}/notifications/{notificationId}/read")
+    public ResponseEntity<UnreadCount> markAsRead(@PathVariable Long userId, @PathVariable Long notificationId) {
+        return ResponseEntity.ok(notificationService.markAsRead(userId, List.of(notificationId)));
+    }
+
+    @PostMapping("/users/{userId}/notifications/read")
+    public ResponseEntity<UnreadCount> markAsRead(@PathVariable Long userId, @RequestBody List<Long> notificationIds) {
+        return ResponseEntity.ok(notificationService.markAsRead(userId, notificationIds));
+    }
+
+    @PostMapping("/users/{userId}/notifications/read-all")
+    public ResponseEntity<UnreadCount> markAllAsRead(@PathVariable Long userId,
+                                                     @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(notificationService.markAllAsRead(userId, cursor));
     }
 }
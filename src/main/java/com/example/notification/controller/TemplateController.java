@@ -0,0 +1,29 @@
+package com.example.notification.controller;
+
+import com.example.notification.dto.TemplateRequest;
+import com.example.notification.model.NotificationTemplate;
+import com.example.notification.service.TemplateService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/templates")
+public class TemplateController {
+
+    private final TemplateService templateService;
+
+    public TemplateController(TemplateService templateService) {
+        this.templateService = templateService;
+    }
+
+    @PostMapping
+    public ResponseEntity<NotificationTemplate> registerTemplate(@RequestBody TemplateRequest request) {
+        return new ResponseEntity<>(templateService.register(request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{templateId}")
+    public ResponseEntity<NotificationTemplate> getTemplate(@PathVariable String templateId) {
+        return ResponseEntity.ok(templateService.getTemplate(templateId));
+    }
+}
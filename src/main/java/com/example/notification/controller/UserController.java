@@ -0,0 +1,24 @@
+package com.example.notification.controller;
+
+import com.example.notification.dto.UserPreferencesRequest;
+import com.example.notification.model.User;
+import com.example.notification.service.UserService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    private final UserService userService;
+
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @PatchMapping("/{userId}/preferences")
+    public ResponseEntity<User> updatePreferences(@PathVariable Long userId,
+                                                  @RequestBody UserPreferencesRequest request) {
+        return ResponseEntity.ok(userService.updatePreferences(userId, request));
+    }
+}
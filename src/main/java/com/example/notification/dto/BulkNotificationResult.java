@@ -0,0 +1,86 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkNotificationResult {
+
+    // Position of the item in the submitted batch
+    private int index;
+
+    private Long notificationId;
+
+    private boolean accepted;
+
+    // Accepted but not sent, because the user has opted out of the channel
+    private boolean suppressed;
+
+    // Accepted, but over the user's rate limit; it will be delivered as part of the next digest
+    private boolean coalesced;
+
+    // Accepted and held until its scheduledAt
+    private boolean scheduled;
+
+    // Accepted earlier under the same idempotency key; notificationId is the original notification
+    private boolean duplicate;
+
+    private String error;
+
+    public static BulkNotificationResult accepted(int index, Long notificationId) {
+        return BulkNotificationResult.builder()
+                .index(index)
+                .notificationId(notificationId)
+                .accepted(true)
+                .build();
+    }
+
+    public static BulkNotificationResult suppressed(int index, Long notificationId) {
+        return BulkNotificationResult.builder()
+                .index(index)
+                .notificationId(notificationId)
+                .accepted(true)
+                .suppressed(true)
+                .build();
+    }
+
+    public static BulkNotificationResult coalesced(int index, Long notificationId) {
+        return BulkNotificationResult.builder()
+                .index(index)
+                .notificationId(notificationId)
+                .accepted(true)
+                .coalesced(true)
+                .build();
+    }
+
+    public static BulkNotificationResult scheduled(int index, Long notificationId) {
+        return BulkNotificationResult.builder()
+                .index(index)
+                .notificationId(notificationId)
+                .accepted(true)
+                .scheduled(true)
+                .build();
+    }
+
+    public static BulkNotificationResult duplicate(int index, Long notificationId) {
+        return BulkNotificationResult.builder()
+                .index(index)
+                .notificationId(notificationId)
+                .accepted(true)
+                .duplicate(true)
+                .build();
+    }
+
+    public static BulkNotificationResult rejected(int index, String error) {
+        return BulkNotificationResult.builder()
+                .index(index)
+                .accepted(false)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.notification.dto;
+
+import com.example.notification.model.FanoutSegment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// notification is sent to every user in the segment; its userId and idempotencyKey are ignored
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FanoutRequest {
+
+    private FanoutSegment segment;
+
+    // USER_IDS only
+    private List<Long> userIds;
+
+    // FILTER only; leave a flag unset to match users either way
+    private Boolean emailEnabled;
+
+    private Boolean smsEnabled;
+
+    private Boolean inAppEnabled;
+
+    private NotificationRequest notification;
+}
@@ -0,0 +1,46 @@
+package com.example.notification.dto;
+
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// Read-only projection of a notification for inbox listings; selected directly by JPQL, never an entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxItem {
+
+    private Long id;
+
+    private NotificationType type;
+
+    private String subject;
+
+    private String content;
+
+    private NotificationStatus status;
+
+    private boolean read;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    // Selected with templated rows so the inbox can render them; subject and content are null until then
+    @JsonIgnore
+    private String templateId;
+
+    @JsonIgnore
+    private Map<String, String> templateVariables;
+
+    public InboxItem(Long id, NotificationType type, String subject, String content, NotificationStatus status,
+                     boolean read, LocalDateTime createdAt, LocalDateTime sentAt) {
+        this(id, type, subject, content, status, read, createdAt, sentAt, null, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InboxPage {
+
+    private List<InboxItem> items;
+
+    // Pass back as the cursor parameter to get the next page; null on the last page
+    private String nextCursor;
+}
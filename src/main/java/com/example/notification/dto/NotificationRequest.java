@@ -1,13 +1,16 @@
 package com.example.notification.dto;
 
+import com.example.notification.model.NotificationPriority;
 import com.example.notification.model.NotificationType;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,11 +23,31 @@ public class NotificationRequest {
     @NotNull(message = "Notification type is required")
     private NotificationType type;
 
-    @NotBlank(message = "Content cannot be empty")
     private String content;
 
     private String subject;
 
+    // Registered template to render instead of content and subject, filled in from variables per recipient
+    private String templateId;
+
+    private Map<String, String> variables;
+
+    // Defaults to NORMAL; HIGH skips the per-user rate limit and uses the priority queue
+    private NotificationPriority priority;
+
+    // Deliver at this time instead of immediately; times in the past are sent straight away
+    private LocalDateTime scheduledAt;
+
+    // Optional client-chosen key; repeating a request with the same key returns the original notification
+    private String idempotencyKey;
+
+    public NotificationRequest(Long userId, NotificationType type, String content, String subject) {
+        this.userId = userId;
+        this.type = type;
+        this.content = content;
+        this.subject = subject;
+    }
+
     public Long getUserId() {
         return userId;
     }
@@ -41,6 +64,26 @@ public class NotificationRequest {
         return subject;
     }
 
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    public Map<String, String> getVariables() {
+        return variables;
+    }
+
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+
+    public LocalDateTime getScheduledAt() {
+        return scheduledAt;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
     public void setUserId(Long userId) {
         this.userId = userId;
     }
@@ -56,4 +99,24 @@ public class NotificationRequest {
     public void setSubject(String subject) {
         this.subject = subject;
     }
+
+    public void setTemplateId(String templateId) {
+        this.templateId = templateId;
+    }
+
+    public void setVariables(Map<String, String> variables) {
+        this.variables = variables;
+    }
+
+    public void setPriority(NotificationPriority priority) {
+        this.priority = priority;
+    }
+
+    public void setScheduledAt(LocalDateTime scheduledAt) {
+        this.scheduledAt = scheduledAt;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
 }
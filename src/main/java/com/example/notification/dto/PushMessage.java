@@ -0,0 +1,19 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// An in-app notification relayed to the other nodes, for a user with no push connection on the sending node
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PushMessage {
+
+    // Push queue name of the node that relayed it
+    private String originNode;
+
+    private Long userId;
+
+    private InboxItem item;
+}
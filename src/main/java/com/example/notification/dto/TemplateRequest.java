@@ -0,0 +1,20 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Subject and content may contain {{variable}} placeholders
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TemplateRequest {
+
+    private String id;
+
+    private String subject;
+
+    private String content;
+}
@@ -0,0 +1,13 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCount {
+
+    private long unreadCount;
+}
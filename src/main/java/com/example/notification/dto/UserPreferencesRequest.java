@@ -0,0 +1,20 @@
+package com.example.notification.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Partial update: channels left null keep their current setting
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPreferencesRequest {
+
+    private Boolean emailEnabled;
+
+    private Boolean smsEnabled;
+
+    private Boolean inAppEnabled;
+}
@@ -0,0 +1,64 @@
+package com.example.notification.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+// A delivered or finally failed notification moved out of the notifications table by retention.
+// Written once by an insert-select and never updated; the ID is the one the notification had.
+@Entity
+@Table(name = "notifications_archive",
+        indexes = {
+                // Serves archived inbox history in the same keyset order as the live inbox
+                @Index(name = "idx_notifications_archive_user_created", columnList = "user_id, created_at DESC, id")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedNotification {
+    @Id
+    private Long id;
+
+    // No foreign key, so archived history does not hold up deleting a user
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private NotificationPriority priority;
+
+    @Enumerated(EnumType.STRING)
+    private NotificationStatus status;
+
+    @Column(columnDefinition = "TEXT")
+    private String subject;
+
+    private String content;
+
+    @Column(length = 64)
+    private String templateId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, String> templateVariables;
+
+    private boolean read;
+
+    private boolean digest;
+
+    private int retryCount;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,10 @@
+package com.example.notification.model;
+
+// Who a fan-out job sends to
+public enum FanoutSegment {
+    ALL,
+    // The job's userIds list
+    USER_IDS,
+    // Users matching the job's channel flag filter; unset flags match either value
+    FILTER
+}
@@ -0,0 +1,11 @@
+package com.example.notification.model;
+
+public enum FanoutStatus {
+    // Waiting for a node to claim it
+    PENDING,
+    // Claimed, or between attempts; resumes from lastUserId once its lease is free
+    RUNNING,
+    COMPLETED,
+    // Gave up after maxAttempts failed runs
+    FAILED
+}
@@ -2,22 +2,38 @@ package com.example.notification.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.sql.ConnectionBuilder;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 import lombok.*;
 
 @Entity
-@Table(name = "notifications")
+// Status updates from the dispatch path must not write back a stale read flag set concurrently by mark-read
+@DynamicUpdate
+@Table(name = "notifications",
+        indexes = {
+                @Index(name = "idx_notifications_status_next_retry", columnList = "status, next_retry_at"),
+                // Range scans for scheduled rows coming due, with id as tie-breaker for popular send times
+                @Index(name = "idx_notifications_status_scheduled", columnList = "status, scheduled_at, id"),
+                // Serves keyset-paginated inbox reads without sorting
+                @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at DESC, id"),
+                @Index(name = "uk_notifications_idempotency_key", columnList = "idempotency_key", unique = true)
+        })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Notification {
+    // Pooled sequence so IDs are allocated in blocks and inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_seq", allocationSize = 50)
     private Long id;
 
     private String content;
@@ -29,11 +45,22 @@ public class Notification {
 
     private boolean read;
 
+    // A digest summarizing COALESCED notifications; delivered, but left out of the inbox, which already lists
+    // the DIGESTED originals
+    private boolean digest;
+
     @Enumerated(EnumType.STRING)
     private NotificationStatus status;
 
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private NotificationPriority priority;
+
     private int retryCount;
 
+    // When a RETRY notification becomes due for its next attempt
+    private LocalDateTime nextRetryAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     @JsonBackReference
@@ -45,10 +72,34 @@ public class Notification {
 
     private LocalDateTime sentAt;
 
+    // Earliest delivery time; null means send immediately
+    private LocalDateTime scheduledAt;
+
+    // W3C traceparent of the request that created the notification, propagated to every delivery attempt
+    @Column(length = 55)
+    private String traceParent;
+
+    // Set instead of subject and content when the notification uses a registered template; rendered by the
+    // channel sender at delivery and by the inbox when read
+    @Column(length = 64)
+    private String templateId;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Map<String, String> templateVariables;
+
+    // Client-supplied deduplication key, unique when present
+    @Column(length = 128)
+    private String idempotencyKey;
+
     @PrePersist
     public void prePersist() {
         createdAt = LocalDateTime.now();
-        status = NotificationStatus.PENDING;
+        if (status == null) {
+            status = NotificationStatus.PENDING;
+        }
+        if (priority == null) {
+            priority = NotificationPriority.NORMAL;
+        }
         retryCount = 0;
     }
 }
@@ -0,0 +1,9 @@
+package com.example.notification.model;
+
+// HIGH is for transactional messages (password resets, one-time codes) and is delivered through a
+// separate queue per channel; NORMAL and LOW share the standard queue
+public enum NotificationPriority {
+    LOW,
+    NORMAL,
+    HIGH
+}
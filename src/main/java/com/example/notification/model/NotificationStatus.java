@@ -1,8 +1,16 @@
 package com.example.notification.model;
 
 public enum NotificationStatus {
+    // Held until scheduledAt; not in the inbox or the unread count yet
+    SCHEDULED,
     PENDING,
     SENT,
     FAILED,
-    RETRY
+    RETRY,
+    // Terminal: the user has opted out of the channel, nothing was sent
+    SUPPRESSED,
+    // Over the per-user rate limit; held back for the next digest
+    COALESCED,
+    // Terminal: delivered as part of a digest notification
+    DIGESTED
 }
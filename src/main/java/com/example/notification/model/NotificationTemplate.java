@@ -0,0 +1,35 @@
+package com.example.notification.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Registered once and referenced by ID from notifications, which then store only their variables.
+// Never updated: changed wording is registered under a new ID, so cached compiled copies cannot go stale.
+@Entity
+@Table(name = "notification_templates")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationTemplate {
+    // Client-chosen, e.g. "order-shipped-v2"
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(columnDefinition = "TEXT")
+    private String subject;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String content;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        createdAt = LocalDateTime.now();
+    }
+}
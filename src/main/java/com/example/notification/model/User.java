@@ -7,7 +7,8 @@ import jakarta.persistence.*;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -24,6 +25,10 @@ public class User {
 
     private boolean inAppEnabled = true;
 
+    // Maintained incrementally by bulk UPDATEs only; never written back from a loaded entity
+    @Column(nullable = false, updatable = false)
+    private long unreadCount;
+
     public User() {
     }
 
@@ -93,4 +98,16 @@ public class User {
     public void setInAppEnabled(boolean inAppEnabled) {
         this.inAppEnabled = inAppEnabled;
     }
+
+    public boolean isChannelEnabled(NotificationType type) {
+        return switch (type) {
+            case EMAIL -> emailEnabled;
+            case SMS -> smsEnabled;
+            case IN_APP -> inAppEnabled;
+        };
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
 }
@@ -0,0 +1,45 @@
+package com.example.notification.repository;
+
+import com.example.notification.dto.InboxItem;
+import com.example.notification.model.ArchivedNotification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedNotificationRepository extends JpaRepository<ArchivedNotification, Long> {
+
+    // Copies the rows inside the database without loading them, read flag included; the unread count is
+    // adjusted separately by the caller
+    @Modifying
+    @Query("insert into ArchivedNotification (id, userId, type, priority, status, subject, content, templateId,"
+            + " templateVariables, read, digest, retryCount, createdAt, sentAt, archivedAt)"
+            + " select n.id, n.user.id, n.type, n.priority, n.status, n.subject, n.content, n.templateId,"
+            + " n.templateVariables, n.read, n.digest, n.retryCount, n.createdAt, n.sentAt, :archivedAt"
+            + " from Notification n where n.id in :ids")
+    int archive(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Query("select new com.example.notification.dto.InboxItem(a.id, a.type, a.subject, a.content, a.status, a.read,"
+            + " a.createdAt, a.sentAt, a.templateId, a.templateVariables) from ArchivedNotification a"
+            + " where a.userId = :userId"
+            + " and a.status <> com.example.notification.model.NotificationStatus.SUPPRESSED and a.digest = false"
+            + " order by a.createdAt desc, a.id desc")
+    List<InboxItem> findInbox(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset continuation: everything strictly after (createdAt, id) in (createdAt DESC, id DESC) order
+    @Query("select new com.example.notification.dto.InboxItem(a.id, a.type, a.subject, a.content, a.status, a.read,"
+            + " a.createdAt, a.sentAt, a.templateId, a.templateVariables) from ArchivedNotification a"
+            + " where a.userId = :userId"
+            + " and a.status <> com.example.notification.model.NotificationStatus.SUPPRESSED and a.digest = false"
+            + " and (a.createdAt < :createdAt or (a.createdAt = :createdAt and a.id < :id))"
+            + " order by a.createdAt desc, a.id desc")
+    List<InboxItem> findInboxAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Pageable pageable);
+}
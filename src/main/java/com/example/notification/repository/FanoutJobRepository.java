@@ -0,0 +1,54 @@
+package com.example.notification.repository;
+
+import com.example.notification.model.FanoutJob;
+import com.example.notification.model.FanoutStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FanoutJobRepository extends JpaRepository<FanoutJob, Long> {
+
+    // Unfinished jobs nobody holds a lease on: new ones, and ones whose node stopped or failed
+    @Query("select j.id from FanoutJob j"
+            + " where j.status in (com.example.notification.model.FanoutStatus.PENDING,"
+            + " com.example.notification.model.FanoutStatus.RUNNING)"
+            + " and (j.leaseUntil is null or j.leaseUntil < :now) order by j.id")
+    List<Long> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Conditional, so of several nodes claiming the same job only one gets 1 back
+    @Modifying
+    @Query("update FanoutJob j set j.status = com.example.notification.model.FanoutStatus.RUNNING,"
+            + " j.leaseUntil = :leaseUntil where j.id = :id"
+            + " and j.status in (com.example.notification.model.FanoutStatus.PENDING,"
+            + " com.example.notification.model.FanoutStatus.RUNNING)"
+            + " and (j.leaseUntil is null or j.leaseUntil < :now)")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("update FanoutJob j set j.startedAt = :startedAt, j.totalUsers = :totalUsers where j.id = :id")
+    int markStarted(@Param("id") Long id, @Param("startedAt") LocalDateTime startedAt,
+                    @Param("totalUsers") long totalUsers);
+
+    // Written as single UPDATEs so the job's userIds list is never loaded or rewritten mid-run
+    @Modifying
+    @Query("update FanoutJob j set j.lastUserId = :#{#job.lastUserId}, j.processed = :#{#job.processed},"
+            + " j.created = :#{#job.created}, j.suppressed = :#{#job.suppressed},"
+            + " j.coalesced = :#{#job.coalesced}, j.duplicates = :#{#job.duplicates},"
+            + " j.rejected = :#{#job.rejected}, j.leaseUntil = :leaseUntil where j.id = :#{#job.id}")
+    int checkpoint(@Param("job") FanoutJob job, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // A null leaseUntil makes the job claimable at once; a future one holds it back until then
+    @Modifying
+    @Query("update FanoutJob j set j.status = :status, j.attempts = :attempts, j.error = :error,"
+            + " j.completedAt = :completedAt, j.leaseUntil = :leaseUntil where j.id = :id")
+    int release(@Param("id") Long id, @Param("status") FanoutStatus status, @Param("attempts") int attempts,
+                @Param("error") String error, @Param("completedAt") LocalDateTime completedAt,
+                @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -1,14 +1,136 @@
 package com.example.notification.repository;
 
+import com.example.notification.dto.InboxItem;
 import com.example.notification.model.Notification;
-import com.example.notification.model.NotificationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
-    List<Notification> findByStatus(NotificationStatus status);
+
+    interface ScheduledSlot {
+        Long getId();
+
+        LocalDateTime getScheduledAt();
+    }
+
+    interface ArchiveCandidate {
+        Long getId();
+
+        Long getUserId();
+
+        boolean isRead();
+    }
+
+    @Query("select new com.example.notification.dto.InboxItem(n.id, n.type, n.subject, n.content, n.status, n.read,"
+            + " n.createdAt, n.sentAt, n.templateId, n.templateVariables) from Notification n where n.user.id = :userId"
+            + " and n.status not in (com.example.notification.model.NotificationStatus.SUPPRESSED,"
+            + " com.example.notification.model.NotificationStatus.SCHEDULED) and n.digest = false"
+            + " order by n.createdAt desc, n.id desc")
+    List<InboxItem> findInbox(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset continuation: everything strictly after (createdAt, id) in (createdAt DESC, id DESC) order
+    @Query("select new com.example.notification.dto.InboxItem(n.id, n.type, n.subject, n.content, n.status, n.read,"
+            + " n.createdAt, n.sentAt, n.templateId, n.templateVariables) from Notification n where n.user.id = :userId"
+            + " and n.status not in (com.example.notification.model.NotificationStatus.SUPPRESSED,"
+            + " com.example.notification.model.NotificationStatus.SCHEDULED) and n.digest = false"
+            + " and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id))"
+            + " order by n.createdAt desc, n.id desc")
+    List<InboxItem> findInboxAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Pageable pageable);
+
+    Optional<Notification> findByIdempotencyKey(String idempotencyKey);
+
+    List<Notification> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
+    // Returns only the rows that flipped, so the caller can decrement the unread counter by exactly that much
+    @Modifying
+    @Query("update Notification n set n.read = true where n.user.id = :userId and n.id in :ids and n.read = false")
+    int markRead(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Notification n set n.read = true where n.user.id = :userId and n.read = false")
+    int markAllRead(@Param("userId") Long userId);
+
+    // Everything at or after the cursor position in inbox order, i.e. the cursor row and all older rows
+    @Modifying
+    @Query("update Notification n set n.read = true where n.user.id = :userId and n.read = false"
+            + " and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id <= :id))")
+    int markReadThrough(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                        @Param("id") Long id);
+
+    // Next chunk of due RETRY rows after the keyset cursor, locked with FOR UPDATE SKIP LOCKED (lock timeout -2)
+    // so sweeps on several nodes claim disjoint chunks. Rows without a next attempt time predate backoff scheduling.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n from Notification n where n.status = com.example.notification.model.NotificationStatus.RETRY"
+            + " and (n.nextRetryAt is null or n.nextRetryAt <= :now) and n.id > :afterId order by n.id")
+    List<Notification> findDueRetries(@Param("now") LocalDateTime now, @Param("afterId") long afterId, Pageable pageable);
+
+    // Oldest coalesced notifications waiting for a digest, locked with FOR UPDATE SKIP LOCKED (lock timeout -2)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n from Notification n"
+            + " where n.status = com.example.notification.model.NotificationStatus.COALESCED order by n.id")
+    List<Notification> findCoalesced(Pageable pageable);
+
+    // Scheduled rows due by :until in (scheduledAt, id) order, read off idx_notifications_status_scheduled
+    @Query("select n.id as id, n.scheduledAt as scheduledAt from Notification n"
+            + " where n.status = com.example.notification.model.NotificationStatus.SCHEDULED"
+            + " and n.scheduledAt <= :until order by n.scheduledAt, n.id")
+    List<ScheduledSlot> findScheduledUntil(@Param("until") LocalDateTime until, Pageable pageable);
+
+    // Keyset continuation of findScheduledUntil after (scheduledAt, id)
+    @Query("select n.id as id, n.scheduledAt as scheduledAt from Notification n"
+            + " where n.status = com.example.notification.model.NotificationStatus.SCHEDULED"
+            + " and n.scheduledAt <= :until"
+            + " and (n.scheduledAt > :afterAt or (n.scheduledAt = :afterAt and n.id > :afterId))"
+            + " order by n.scheduledAt, n.id")
+    List<ScheduledSlot> findScheduledAfter(@Param("until") LocalDateTime until, @Param("afterAt") LocalDateTime afterAt,
+                                           @Param("afterId") Long afterId, Pageable pageable);
+
+    // Rows that are still SCHEDULED, locked with FOR UPDATE SKIP LOCKED (lock timeout -2) so a row is released
+    // by one node only, even though every node loads it into its timing wheel
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n from Notification n"
+            + " where n.status = com.example.notification.model.NotificationStatus.SCHEDULED and n.id in :ids")
+    List<Notification> findScheduledForRelease(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Notification n set n.status = com.example.notification.model.NotificationStatus.PENDING,"
+            + " n.nextRetryAt = null"
+            + " where n.status = com.example.notification.model.NotificationStatus.RETRY and n.id in :ids")
+    int claimForRetry(@Param("ids") Collection<Long> ids);
+
+    // Next chunk of terminal rows created before :cutoff, in id order after the keyset cursor. Locked with
+    // FOR UPDATE SKIP LOCKED (lock timeout -2) so a concurrent mark-read waits for the move instead of
+    // decrementing the unread count for a row retention is already taking off it.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n.id as id, n.user.id as userId, n.read as read from Notification n"
+            + " where n.status in (com.example.notification.model.NotificationStatus.SENT,"
+            + " com.example.notification.model.NotificationStatus.FAILED,"
+            + " com.example.notification.model.NotificationStatus.SUPPRESSED,"
+            + " com.example.notification.model.NotificationStatus.DIGESTED)"
+            + " and n.createdAt < :cutoff and n.id > :afterId order by n.id")
+    List<ArchiveCandidate> findArchivable(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") long afterId,
+                                          Pageable pageable);
+
+    @Modifying
+    @Query("delete from Notification n where n.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
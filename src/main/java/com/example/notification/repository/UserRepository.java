@@ -2,9 +2,41 @@ package com.example.notification.repository;
 
 
 import com.example.notification.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+
+    @Query("select u.unreadCount from User u where u.id = :id")
+    Optional<Long> findUnreadCount(@Param("id") Long id);
+
+    // Applies the same delta to every listed user in one statement
+    @Modifying
+    @Query("update User u set u.unreadCount = u.unreadCount + :delta where u.id in :ids")
+    int adjustUnreadCount(@Param("ids") Collection<Long> ids, @Param("delta") long delta);
+
+    // Keyset page of user IDs after afterId for fan-out jobs; a null flag matches either value
+    @Query("select u.id from User u where u.id > :afterId"
+            + " and (:emailEnabled is null or u.emailEnabled = :emailEnabled)"
+            + " and (:smsEnabled is null or u.smsEnabled = :smsEnabled)"
+            + " and (:inAppEnabled is null or u.inAppEnabled = :inAppEnabled)"
+            + " order by u.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, @Param("emailEnabled") Boolean emailEnabled,
+                            @Param("smsEnabled") Boolean smsEnabled, @Param("inAppEnabled") Boolean inAppEnabled,
+                            Pageable pageable);
+
+    @Query("select count(u) from User u where (:emailEnabled is null or u.emailEnabled = :emailEnabled)"
+            + " and (:smsEnabled is null or u.smsEnabled = :smsEnabled)"
+            + " and (:inAppEnabled is null or u.inAppEnabled = :inAppEnabled)")
+    long countMatching(@Param("emailEnabled") Boolean emailEnabled, @Param("smsEnabled") Boolean smsEnabled,
+                       @Param("inAppEnabled") Boolean inAppEnabled);
+}
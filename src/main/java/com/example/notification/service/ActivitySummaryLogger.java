@@ -0,0 +1,71 @@
+package com.example.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// One INFO line per interval in place of per-notification lines. Built from the counters the services already
+// keep, so it adds nothing to the hot path.
+@Component
+public class ActivitySummaryLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivitySummaryLogger.class);
+
+    private final MeterRegistry meterRegistry;
+
+    // Counter totals at the previous summary
+    private final Map<Meter.Id, Double> previous = new HashMap<>();
+    private long previousAtMs = System.currentTimeMillis();
+
+    public ActivitySummaryLogger(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.logging.summary-interval-ms:60000}")
+    public void logSummary() {
+        String summary = summarize();
+        if (summary != null) {
+            log.info(summary);
+        }
+    }
+
+    // Null when nothing happened since the previous summary
+    synchronized String summarize() {
+        long now = System.currentTimeMillis();
+        long seconds = Math.round((now - previousAtMs) / 1000.0);
+        previousAtMs = now;
+
+        Map<String, Long> created = deltas("notification.created", "status");
+        Map<String, Long> deliveries = deltas("notification.delivery", "outcome");
+        long requeued = deltas("notification.retry.requeued", null).getOrDefault("", 0L);
+        long published = deltas("notification.outbox.published", null).getOrDefault("", 0L);
+        if (created.isEmpty() && deliveries.isEmpty() && requeued == 0 && published == 0) {
+            return null;
+        }
+        return "Last " + seconds + "s: created " + created + ", published " + published
+                + ", deliveries " + deliveries + ", requeued for retry " + requeued;
+    }
+
+    // Increase of every counter with this name since the previous call, summed per value of tag
+    private Map<String, Long> deltas(String name, String tag) {
+        Map<String, Long> deltas = new TreeMap<>();
+        for (Counter counter : meterRegistry.find(name).counters()) {
+            double total = counter.count();
+            Double before = previous.put(counter.getId(), total);
+            long delta = Math.round(total - (before == null ? 0 : before));
+            if (delta > 0) {
+                String key = tag == null ? "" : String.valueOf(counter.getId().getTag(tag));
+                deltas.merge(key, delta, Long::sum);
+            }
+        }
+        return deltas;
+    }
+}
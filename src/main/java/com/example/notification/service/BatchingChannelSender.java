@@ -0,0 +1,71 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+// Base for channels whose provider accepts many recipients per request: sends are collected by a SendBatcher
+// and handed to the provider together
+public abstract class BatchingChannelSender implements ChannelSender {
+
+    // Logs under the concrete sender, e.g. EmailService
+    private final Logger log = LoggerFactory.getLogger(getClass());
+
+    private final String unit;
+    private final StubProvider provider;
+    private final SendBatcher batcher;
+    private final TemplateService templateService;
+
+    // unit names the messages in log lines, e.g. "emails"
+    protected BatchingChannelSender(String name, String unit, StubProvider provider,
+                                    NotificationProperties.Channel channel, ExecutorService executor,
+                                    TemplateService templateService) {
+        this.unit = unit;
+        this.provider = provider;
+        this.templateService = templateService;
+        this.batcher = new SendBatcher(name, channel.getProviderBatchSize(), channel.getProviderBatchDelayMs(),
+                this::sendBatch, executor);
+    }
+
+    protected CompletableFuture<DeliveryResult> submit(Notification notification) {
+        return batcher.submit(notification);
+    }
+
+    // Submits all notifications in one provider call and returns one result per notification, in order
+    public List<DeliveryResult> sendBatch(List<Notification> notifications) {
+        // Recipients and content are never logged
+        log.debug("Sending batch of {} {}", notifications.size(), unit);
+
+        // Rendered only now, on the batcher thread, so stored rows carry just a template reference
+        List<RenderedMessage> messages = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            messages.add(templateService.render(notification));
+        }
+        List<DeliveryResult> results = provider.sendBatch(messages);
+
+        // One line per batch with failures, so a provider outage shows at the default level; per-notification
+        // failures are counted per channel and outcome by NotificationProcessor
+        int failed = 0;
+        for (DeliveryResult result : results) {
+            if (!result.isDelivered()) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("Failed to send {} of {} {}", failed, notifications.size(), unit);
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batcher.close();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationType;
+
+import java.util.concurrent.CompletableFuture;
+
+// Delivery SPI implemented once per channel. Implementations must not block the caller;
+// the returned future completes when the provider has accepted or rejected the notification.
+public interface ChannelSender {
+
+    NotificationType type();
+
+    CompletableFuture<DeliveryResult> send(Notification notification);
+}
@@ -0,0 +1,165 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationPriority;
+import com.example.notification.model.NotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+@Component
+public class ChannelSenderRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ChannelSenderRegistry.class);
+
+    private final Map<NotificationType, ChannelSender> senders = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, Semaphore> inFlight = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, Semaphore> priorityInFlight = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, CircuitBreaker> breakers = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, Map<DeliveryResult.Outcome, Timer>> sendTimers =
+            new EnumMap<>(NotificationType.class);
+    private final NotificationProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ChannelSenderRegistry(List<ChannelSender> senders, NotificationProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this(senders, properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    ChannelSenderRegistry(List<ChannelSender> senders, NotificationProperties properties,
+                          MeterRegistry meterRegistry, LongSupplier clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (ChannelSender sender : senders) {
+            if (this.senders.put(sender.type(), sender) != null) {
+                throw new IllegalStateException("Multiple senders registered for " + sender.type());
+            }
+            NotificationProperties.Channel channel = properties.getChannels().get(sender.type());
+            Semaphore standard = new Semaphore(channel.getMaxInFlight());
+            Semaphore priority = new Semaphore(channel.getPriorityLane().getMaxInFlight());
+            this.inFlight.put(sender.type(), standard);
+            this.priorityInFlight.put(sender.type(), priority);
+            registerInFlightGauge(sender.type(), "standard", standard, channel.getMaxInFlight());
+            registerInFlightGauge(sender.type(), "priority", priority, channel.getPriorityLane().getMaxInFlight());
+
+            Map<DeliveryResult.Outcome, Timer> timers = new EnumMap<>(DeliveryResult.Outcome.class);
+            for (DeliveryResult.Outcome outcome : DeliveryResult.Outcome.values()) {
+                timers.put(outcome, Timer.builder("notification.send")
+                        .description("Provider send time, from acquiring an in-flight permit to the result")
+                        .tag("channel", sender.type().name())
+                        .tag("outcome", outcome.name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            this.sendTimers.put(sender.type(), timers);
+
+            CircuitBreaker breaker = new CircuitBreaker(channel.getCircuitBreaker(), clock);
+            this.breakers.put(sender.type(), breaker);
+            Gauge.builder("notification.circuit.state", breaker, b -> b.state().ordinal())
+                    .description("Provider circuit: 0 closed, 1 half-open, 2 open")
+                    .tag("channel", sender.type().name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public CircuitBreaker.State circuitState(NotificationType type) {
+        CircuitBreaker breaker = breakers.get(type);
+        return breaker == null ? CircuitBreaker.State.CLOSED : breaker.state();
+    }
+
+    // Blocks only while the channel already has maxInFlight sends outstanding. HIGH priority sends draw
+    // from their own permits, so they are not stuck behind a full window of standard sends.
+    public CompletableFuture<DeliveryResult> send(Notification notification) {
+        NotificationType type = notification.getType();
+        ChannelSender sender = senders.get(type);
+        if (sender == null) {
+            log.error("Unknown notification type: {}", type);
+            return CompletableFuture.completedFuture(DeliveryResult.permanentFailure("No sender for type " + type));
+        }
+
+        // Parked without touching the provider or a permit; the caller schedules it for after the circuit closes
+        CircuitBreaker breaker = breakers.get(type);
+        if (!breaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(DeliveryResult.deferred("Circuit open for " + type));
+        }
+
+        Semaphore permits = notification.getPriority() == NotificationPriority.HIGH
+                ? priorityInFlight.get(type)
+                : inFlight.get(type);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recordOutcome(type, breaker, DeliveryResult.Outcome.TRANSIENT_FAILURE);
+            return CompletableFuture.completedFuture(DeliveryResult.transientFailure("Interrupted"));
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<DeliveryResult> result;
+        try {
+            result = sender.send(notification);
+        } catch (Exception e) {
+            permits.release();
+            sample.stop(sendTimers.get(type).get(DeliveryResult.Outcome.TRANSIENT_FAILURE));
+            recordOutcome(type, breaker, DeliveryResult.Outcome.TRANSIENT_FAILURE);
+            return CompletableFuture.completedFuture(DeliveryResult.transientFailure(e.getMessage()));
+        }
+
+        // The permit follows the provider call itself, so timed-out sends still count until they finish
+        result.whenComplete((r, e) -> permits.release());
+
+        long timeoutMs = properties.getChannels().get(type).getSendTimeoutMs();
+        return result.copy()
+                .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> DeliveryResult.transientFailure(String.valueOf(e.getMessage())))
+                .whenComplete((r, e) -> {
+                    sample.stop(sendTimers.get(type).get(r.outcome()));
+                    recordOutcome(type, breaker, r.outcome());
+                });
+    }
+
+    // Only transient failures count against the provider; a permanent failure is still an answer from it
+    private void recordOutcome(NotificationType type, CircuitBreaker breaker, DeliveryResult.Outcome outcome) {
+        CircuitBreaker.State changed = outcome == DeliveryResult.Outcome.TRANSIENT_FAILURE
+                ? breaker.onFailure()
+                : breaker.onSuccess();
+        if (changed == null) {
+            return;
+        }
+        if (changed == CircuitBreaker.State.OPEN) {
+            log.warn("{} circuit opened; deliveries are parked for {} ms", type,
+                    properties.getChannels().get(type).getCircuitBreaker().getOpenDurationMs());
+        } else {
+            log.info("{} circuit closed", type);
+        }
+        Counter.builder("notification.circuit.transitions")
+                .description("Provider circuit state changes")
+                .tag("channel", type.name())
+                .tag("state", changed.name())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void registerInFlightGauge(NotificationType type, String lane, Semaphore permits, int maxInFlight) {
+        Gauge.builder("notification.send.in_flight", permits, p -> maxInFlight - p.availablePermits())
+                .description("Provider sends currently outstanding")
+                .tag("channel", type.name())
+                .tag("lane", lane)
+                .register(meterRegistry);
+    }
+}
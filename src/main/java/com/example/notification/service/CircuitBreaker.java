@@ -0,0 +1,127 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+
+import java.util.function.LongSupplier;
+
+// Count-based circuit breaker for one channel provider. CLOSED: outcomes of the last slidingWindowSize calls are
+// kept, and once at least minimumCalls are recorded a failure rate at or above the threshold opens the circuit.
+// OPEN: no calls for openDurationMs. HALF_OPEN: halfOpenProbes calls are let through; if all of them succeed the
+// circuit closes, the first failure opens it again.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final NotificationProperties.Breaker config;
+    private final LongSupplier clock;
+
+    // Guarded by this
+    private final boolean[] failures;
+    private int recorded;
+    private int next;
+    private int failureCount;
+    private State state = State.CLOSED;
+    private long openUntilMs;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    public CircuitBreaker(NotificationProperties.Breaker config, LongSupplier clock) {
+        this.config = config;
+        this.clock = clock;
+        this.failures = new boolean[Math.max(1, config.getSlidingWindowSize())];
+    }
+
+    // False while the circuit is open, or half-open with every probe already started
+    public synchronized boolean tryAcquire() {
+        if (!config.isEnabled()) {
+            return true;
+        }
+        if (state == State.OPEN && clock.getAsLong() >= openUntilMs) {
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= config.getHalfOpenProbes()) {
+                return false;
+            }
+            probesStarted++;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    // The provider answered, even if it rejected this recipient. Returns the new state if this call changed it,
+    // otherwise null; results of calls started before the circuit opened are ignored while it is open.
+    public synchronized State onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= config.getHalfOpenProbes()) {
+                close();
+                return State.CLOSED;
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+        return null;
+    }
+
+    public synchronized State onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return State.OPEN;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= config.getMinimumCalls()
+                    && failureCount * 100.0 / recorded >= config.getFailureRateThreshold()) {
+                open();
+                return State.OPEN;
+            }
+        }
+        return null;
+    }
+
+    // OPEN until it is time to probe; HALF_OPEN is reported from then on, even before the next call
+    public synchronized State state() {
+        if (state == State.OPEN && clock.getAsLong() >= openUntilMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    // When an open circuit starts probing; meaningless in other states
+    public synchronized long openUntilMs() {
+        return openUntilMs;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[next]) {
+                failureCount--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        next = (next + 1) % failures.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilMs = clock.getAsLong() + config.getOpenDurationMs();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failureCount = 0;
+    }
+}
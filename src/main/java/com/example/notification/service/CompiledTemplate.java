@@ -0,0 +1,88 @@
+package com.example.notification.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// A template text split once into literal parts and {{variable}} placeholders. Rendering walks the parts
+// into a builder sized exactly for the result, so each render allocates only the output string.
+public final class CompiledTemplate {
+
+    private static final Pattern VARIABLE_NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+    // literals.length == names.length + 1; literal i comes before variable i
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+    private final Set<String> variables;
+
+    private CompiledTemplate(String[] literals, String[] names) {
+        this.literals = literals;
+        this.names = names;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+        this.variables = Set.copyOf(new LinkedHashSet<>(List.of(names)));
+    }
+
+    // Null compiles to a template that renders null, for templates without a subject
+    public static CompiledTemplate compile(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int from = 0;
+        int open;
+        while ((open = text.indexOf("{{", from)) >= 0) {
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at position " + open);
+            }
+            String name = text.substring(open + 2, close).strip();
+            if (!VARIABLE_NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Invalid variable name '" + name + "' at position " + open);
+            }
+            literals.add(text.substring(from, open));
+            names.add(name);
+            from = close + 2;
+        }
+        literals.add(text.substring(from));
+        return new CompiledTemplate(literals.toArray(String[]::new), names.toArray(String[]::new));
+    }
+
+    // Variables missing from the map render as empty text; ingest rejects requests that leave any out
+    public String render(Map<String, String> values) {
+        if (names.length == 0) {
+            return literals[0];
+        }
+        if (values == null) {
+            values = Map.of();
+        }
+        int length = literalLength;
+        for (String name : names) {
+            String value = values.get(name);
+            if (value != null) {
+                length += value.length();
+            }
+        }
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            String value = values.get(names[i]);
+            if (value != null) {
+                out.append(value);
+            }
+        }
+        return out.append(literals[names.length]).toString();
+    }
+
+    public Set<String> variables() {
+        return variables;
+    }
+}
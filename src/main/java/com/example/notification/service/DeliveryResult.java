@@ -0,0 +1,43 @@
+package com.example.notification.service;
+
+public record DeliveryResult(Outcome outcome, String reason) {
+
+    public enum Outcome {
+        DELIVERED,
+        // Worth retrying later (timeouts, provider throttling, random provider errors)
+        TRANSIENT_FAILURE,
+        // Retrying cannot help (missing address, invalid recipient)
+        PERMANENT_FAILURE,
+        // Not sent because the user opted out of the channel after the notification was created
+        SUPPRESSED,
+        // Not attempted because the channel's circuit is open; parked until it is expected to close
+        DEFERRED
+    }
+
+    private static final DeliveryResult DELIVERED = new DeliveryResult(Outcome.DELIVERED, null);
+    private static final DeliveryResult SUPPRESSED = new DeliveryResult(Outcome.SUPPRESSED, null);
+
+    public static DeliveryResult delivered() {
+        return DELIVERED;
+    }
+
+    public static DeliveryResult suppressed() {
+        return SUPPRESSED;
+    }
+
+    public static DeliveryResult deferred(String reason) {
+        return new DeliveryResult(Outcome.DEFERRED, reason);
+    }
+
+    public static DeliveryResult transientFailure(String reason) {
+        return new DeliveryResult(Outcome.TRANSIENT_FAILURE, reason);
+    }
+
+    public static DeliveryResult permanentFailure(String reason) {
+        return new DeliveryResult(Outcome.PERMANENT_FAILURE, reason);
+    }
+
+    public boolean isDelivered() {
+        return outcome == Outcome.DELIVERED;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.notification.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DigestScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DigestScheduler.class);
+
+    private final DigestService digestService;
+
+    public DigestScheduler(DigestService digestService) {
+        this.digestService = digestService;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.rate-limit.digest-interval-ms:60000}")
+    public void sendDigests() {
+        log.debug("Scheduled task: Sending digests of coalesced notifications");
+        digestService.sendDigests();
+    }
+}
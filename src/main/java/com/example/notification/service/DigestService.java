@@ -0,0 +1,111 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Folds notifications held back by the rate limiter into one digest per user and channel
+@Service
+public class DigestService {
+
+    private static final Logger log = LoggerFactory.getLogger(DigestService.class);
+
+    private record DigestKey(Long userId, NotificationType type) {
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final OutboxService outboxService;
+    private final TemplateService templateService;
+    private final NotificationProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public DigestService(NotificationRepository notificationRepository,
+                         OutboxService outboxService,
+                         TemplateService templateService,
+                         NotificationProperties properties,
+                         PlatformTransactionManager transactionManager) {
+        this.notificationRepository = notificationRepository;
+        this.outboxService = outboxService;
+        this.templateService = templateService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void sendDigests() {
+        int batchSize = properties.getRateLimit().getDigestBatchSize();
+        int digested = 0;
+        int batch;
+        do {
+            Integer count = transactionTemplate.execute(status -> digestBatch(batchSize));
+            batch = count == null ? 0 : count;
+            digested += batch;
+        } while (batch == batchSize);
+
+        if (digested > 0) {
+            log.info("Folded {} coalesced notifications into digests", digested);
+        }
+    }
+
+    private int digestBatch(int batchSize) {
+        List<Notification> coalesced = notificationRepository.findCoalesced(PageRequest.of(0, batchSize));
+        if (coalesced.isEmpty()) {
+            return 0;
+        }
+
+        Map<DigestKey, List<Notification>> groups = new LinkedHashMap<>();
+        for (Notification notification : coalesced) {
+            groups.computeIfAbsent(new DigestKey(notification.getUser().getId(), notification.getType()),
+                    key -> new ArrayList<>()).add(notification);
+            notification.setStatus(NotificationStatus.DIGESTED);
+        }
+
+        List<Notification> digests = new ArrayList<>(groups.size());
+        for (List<Notification> group : groups.values()) {
+            digests.add(buildDigest(group));
+        }
+        // Digests bypass the rate limiter and go out through the outbox like any other notification
+        notificationRepository.saveAll(digests);
+        outboxService.enqueueAll(digests);
+        return coalesced.size();
+    }
+
+    // The originals stay in the inbox and in the unread count, so the digest itself is stored as read and
+    // flagged to keep it out of the inbox
+    private Notification buildDigest(List<Notification> group) {
+        int maxItems = properties.getRateLimit().getDigestMaxItems();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < Math.min(group.size(), maxItems); i++) {
+            RenderedMessage message = templateService.render(group.get(i));
+            content.append("- ")
+                    .append(message.subject() != null ? message.subject() : message.content())
+                    .append('\n');
+        }
+        if (group.size() > maxItems) {
+            content.append("...and ").append(group.size() - maxItems).append(" more\n");
+        }
+
+        Notification first = group.get(0);
+        return Notification.builder()
+                .user(first.getUser())
+                .type(first.getType())
+                .subject(group.size() + " new notifications")
+                .content(content.toString())
+                .status(NotificationStatus.PENDING)
+                .read(true)
+                .digest(true)
+                .build();
+    }
+}
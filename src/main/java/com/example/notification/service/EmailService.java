@@ -1,37 +1,37 @@
 package com.example.notification.service;
 
+import com.example.notification.config.NotificationProperties;
 import com.example.notification.model.Notification;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.example.notification.model.NotificationType;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-@Service
-public class EmailService {
-
-    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
-    public boolean sendEmail(Notification notification) {
-        try {
-            // In a real application, this would use an email client library
-            // like JavaMail to send actual emails
-            log.info("Sending email to user {}: Subject: '{}', Content: '{}'",
-                    notification.getUser() != null ? notification.getUser().getEmail() : "Unknown",
-                    notification.getSubject(),
-                    notification.getContent());
+@Service
+public class EmailService extends BatchingChannelSender {
 
-            // Simulate email sending with random success/failure
-            boolean success = Math.random() > 0.1; // 90% success rate
+    public EmailService(@Qualifier("channelSenderExecutor") ExecutorService executor,
+                        TemplateService templateService,
+                        NotificationProperties properties) {
+        // In a real application, this would be an email provider client (SES, SendGrid, ...)
+        // that accepts many recipients per request
+        super("email", "emails",
+                new StubProvider(properties.getChannels().getEmail().getProviderLatencyMs(), 0.9), // 90% success rate
+                properties.getChannels().getEmail(), executor, templateService);
+    }
 
-            if (success) {
-                log.info("Email sent successfully");
-            } else {
-                log.error("Failed to send email");
-            }
+    @Override
+    public NotificationType type() {
+        return NotificationType.EMAIL;
+    }
 
-            return success;
-        } catch (Exception e) {
-            log.error("Error sending email: {}", e.getMessage(), e);
-            return false;
+    @Override
+    public CompletableFuture<DeliveryResult> send(Notification notification) {
+        if (notification.getUser() == null || notification.getUser().getEmail() == null) {
+            return CompletableFuture.completedFuture(DeliveryResult.permanentFailure("User has no email address"));
         }
+        return submit(notification);
     }
 }
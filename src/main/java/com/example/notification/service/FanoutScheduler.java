@@ -0,0 +1,20 @@
+package com.example.notification.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FanoutScheduler {
+
+    private final FanoutService fanoutService;
+
+    public FanoutScheduler(FanoutService fanoutService) {
+        this.fanoutService = fanoutService;
+    }
+
+    // Starts new jobs and resumes ones left behind by a node that stopped; the jobs run off this thread
+    @Scheduled(fixedDelayString = "${notification.fanout.poll-interval-ms:1000}")
+    public void runClaimable() {
+        fanoutService.runClaimable();
+    }
+}
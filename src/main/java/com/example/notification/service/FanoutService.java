@@ -0,0 +1,361 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.dto.BulkNotificationResult;
+import com.example.notification.dto.FanoutRequest;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.model.FanoutJob;
+import com.example.notification.model.FanoutSegment;
+import com.example.notification.model.FanoutStatus;
+import com.example.notification.repository.FanoutJobRepository;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Sends one notification to every user in a segment without a request per user. The job streams user IDs in
+// keyset pages and bulk-creates each page as a chunk, with up to `parallelism` chunks in flight. Chunks finish
+// out of order, but the checkpoint only moves past a chunk once every earlier chunk has finished. Each
+// notification carries the idempotency key fanout-<job>-<user>, so users after the checkpoint that an
+// interrupted run already reached come back as duplicates instead of being sent twice.
+@Service
+public class FanoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(FanoutService.class);
+
+    private record Chunk(long lastUserId, CompletableFuture<List<BulkNotificationResult>> results) {
+    }
+
+    private final FanoutJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final NotificationProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Timer chunkTimer;
+
+    // Runs the jobs and their chunks; the work is blocking JDBC, bounded by parallelism rather than the pool
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean stopping;
+
+    public FanoutService(FanoutJobRepository jobRepository,
+                         UserRepository userRepository,
+                         NotificationService notificationService,
+                         NotificationProperties properties,
+                         PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.chunkTimer = Timer.builder("notification.fanout.chunk")
+                .description("Time to bulk-create one fan-out chunk")
+                .register(meterRegistry);
+    }
+
+    // Stored as PENDING; FanoutScheduler starts it on whichever node claims it first
+    @Transactional
+    public FanoutJob createJob(FanoutRequest request) {
+        NotificationRequest notification = request.getNotification();
+        if (request.getSegment() == null) {
+            throw new IllegalArgumentException("Segment is required");
+        }
+        if (notification == null || notification.getType() == null) {
+            throw new IllegalArgumentException("Notification type is required");
+        }
+        String error = notificationService.validateContent(notification);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        List<Long> userIds = null;
+        if (request.getSegment() == FanoutSegment.USER_IDS) {
+            int maxUserIds = properties.getFanout().getMaxUserIds();
+            if (request.getUserIds() == null || request.getUserIds().isEmpty()) {
+                throw new IllegalArgumentException("User IDs are required for a USER_IDS segment");
+            }
+            if (request.getUserIds().size() > maxUserIds) {
+                throw new IllegalArgumentException("A USER_IDS segment may list at most " + maxUserIds + " users");
+            }
+            // Sorted so the list can be walked in the same ID order as the user table
+            userIds = new ArrayList<>(new TreeSet<>(request.getUserIds()));
+        }
+        boolean filter = request.getSegment() == FanoutSegment.FILTER;
+
+        FanoutJob job = jobRepository.save(FanoutJob.builder()
+                .segment(request.getSegment())
+                .userIds(userIds)
+                .emailEnabled(filter ? request.getEmailEnabled() : null)
+                .smsEnabled(filter ? request.getSmsEnabled() : null)
+                .inAppEnabled(filter ? request.getInAppEnabled() : null)
+                .type(notification.getType())
+                .priority(notification.getPriority())
+                .subject(notification.getSubject())
+                .content(notification.getContent())
+                .templateId(notification.getTemplateId())
+                .templateVariables(notification.getTemplateId() != null ? notification.getVariables() : null)
+                .scheduledAt(notification.getScheduledAt())
+                .build());
+        log.info("Fan-out job {} created: {} to {}", job.getId(), job.getType(), job.getSegment());
+        return job;
+    }
+
+    @Transactional(readOnly = true)
+    public FanoutJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new EntityNotFoundException("Fan-out job not found with ID: " + jobId));
+    }
+
+    // Claims and starts unfinished jobs until this node runs maxConcurrentJobs
+    public void runClaimable() {
+        while (!stopping && running.get() < properties.getFanout().getMaxConcurrentJobs()) {
+            Long jobId = claimNext();
+            if (jobId == null) {
+                return;
+            }
+            running.incrementAndGet();
+            workers.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private Long claimNext() {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long jobId : jobRepository.findClaimable(now, PageRequest.of(0, 10))) {
+            Integer claimed = transactionTemplate.execute(status -> jobRepository.claim(jobId, now, leaseUntil()));
+            if (claimed != null && claimed == 1) {
+                return jobId;
+            }
+        }
+        return null;
+    }
+
+    // Runs a claimed job from its checkpoint to the end of the segment
+    void run(Long jobId) {
+        FanoutJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        NotificationProperties.Fanout config = properties.getFanout();
+        Deque<Chunk> inFlight = new ArrayDeque<>();
+        long cursor = job.getLastUserId();
+        long nextProgressLog = System.currentTimeMillis() + config.getProgressLogIntervalMs();
+        try {
+            // Inside the try so a failure here also counts as an attempt and releases the lease
+            if (job.getStartedAt() == null) {
+                LocalDateTime startedAt = LocalDateTime.now();
+                long totalUsers = countAudience(job);
+                transactionTemplate.execute(status -> jobRepository.markStarted(jobId, startedAt, totalUsers));
+                job.setStartedAt(startedAt);
+                job.setTotalUsers(totalUsers);
+                log.info("Fan-out job {} started for {} users", jobId, totalUsers);
+            } else {
+                log.info("Fan-out job {} resumed after user {} ({} of {} done)", jobId, job.getLastUserId(),
+                        job.getProcessed(), job.getTotalUsers());
+            }
+
+            List<Long> userIds;
+            do {
+                if (stopping) {
+                    break;
+                }
+                userIds = nextUserIds(job, cursor, config.getChunkSize());
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                cursor = userIds.get(userIds.size() - 1);
+                List<Long> chunk = userIds;
+                inFlight.add(new Chunk(cursor, CompletableFuture.supplyAsync(() -> createChunk(job, chunk), workers)));
+
+                // Checkpoints advance in ID order over finished chunks, waiting on the oldest once the window is full
+                while (!inFlight.isEmpty()
+                        && (inFlight.size() >= config.getParallelism() || inFlight.peek().results().isDone())) {
+                    checkpoint(job, inFlight.poll());
+                }
+                if (System.currentTimeMillis() >= nextProgressLog) {
+                    log.info("Fan-out job {}: {} of {} users, {} users/s", jobId, job.getProcessed(),
+                            job.getTotalUsers(), Math.round(job.getUsersPerSecond()));
+                    nextProgressLog = System.currentTimeMillis() + config.getProgressLogIntervalMs();
+                }
+            } while (userIds.size() == config.getChunkSize());
+
+            while (!inFlight.isEmpty()) {
+                checkpoint(job, inFlight.poll());
+            }
+        } catch (Exception e) {
+            // Chunks still running may finish; their rows are recognised as duplicates when the job resumes
+            for (Chunk chunk : inFlight) {
+                chunk.results().handle((results, error) -> null).join();
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            int attempts = job.getAttempts() + 1;
+            FanoutStatus status = attempts >= config.getMaxAttempts() ? FanoutStatus.FAILED : FanoutStatus.RUNNING;
+            log.error("Fan-out job {} failed after user {} (attempt {} of {}): {}", jobId, job.getLastUserId(),
+                    attempts, config.getMaxAttempts(), cause.getMessage(), cause);
+            // Backed off rather than claimable on the next poll, so an outage does not use up every attempt at once
+            LocalDateTime retryAt = status == FanoutStatus.RUNNING ? retryAt(attempts) : null;
+            release(job, status, attempts, truncate(String.valueOf(cause.getMessage())), null, retryAt);
+            return;
+        }
+
+        if (stopping) {
+            // Resumed from the checkpoint by the next node to claim it
+            release(job, FanoutStatus.RUNNING, job.getAttempts(), null, null, null);
+            log.info("Fan-out job {} paused after user {} for shutdown", jobId, job.getLastUserId());
+            return;
+        }
+        job.setCompletedAt(LocalDateTime.now());
+        release(job, FanoutStatus.COMPLETED, job.getAttempts(), null, job.getCompletedAt(), null);
+        log.info("Fan-out job {} completed: {} users, {} created, {} suppressed, {} coalesced, {} duplicates,"
+                        + " {} rejected, {} users/s", jobId, job.getProcessed(), job.getCreated(), job.getSuppressed(),
+                job.getCoalesced(), job.getDuplicates(), job.getRejected(), Math.round(job.getUsersPerSecond()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs stop at their next chunk and release their lease
+        stopping = true;
+        workers.close();
+    }
+
+    private long countAudience(FanoutJob job) {
+        return switch (job.getSegment()) {
+            case USER_IDS -> job.getUserIds().size();
+            case ALL, FILTER -> userRepository.countMatching(job.getEmailEnabled(), job.getSmsEnabled(),
+                    job.getInAppEnabled());
+        };
+    }
+
+    private List<Long> nextUserIds(FanoutJob job, long afterId, int limit) {
+        if (job.getSegment() == FanoutSegment.USER_IDS) {
+            List<Long> userIds = job.getUserIds();
+            int from = Collections.binarySearch(userIds, afterId);
+            from = from >= 0 ? from + 1 : -from - 1;
+            return userIds.subList(from, Math.min(userIds.size(), from + limit));
+        }
+        return userRepository.findIdsAfter(afterId, job.getEmailEnabled(), job.getSmsEnabled(),
+                job.getInAppEnabled(), PageRequest.of(0, limit));
+    }
+
+    // One bulk create in its own transaction, the same path as POST /api/notifications/bulk
+    private List<BulkNotificationResult> createChunk(FanoutJob job, List<Long> userIds) {
+        List<NotificationRequest> requests = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            NotificationRequest request = new NotificationRequest(userId, job.getType(), job.getContent(),
+                    job.getSubject());
+            request.setTemplateId(job.getTemplateId());
+            request.setVariables(job.getTemplateVariables());
+            request.setPriority(job.getPriority());
+            request.setScheduledAt(job.getScheduledAt());
+            request.setIdempotencyKey("fanout-" + job.getId() + "-" + userId);
+            requests.add(request);
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return notificationService.createNotifications(requests);
+        } finally {
+            sample.stop(chunkTimer);
+        }
+    }
+
+    private void checkpoint(FanoutJob job, Chunk chunk) {
+        List<BulkNotificationResult> results = chunk.results().join();
+        long created = 0;
+        long suppressed = 0;
+        long coalesced = 0;
+        long duplicates = 0;
+        long rejected = 0;
+        for (BulkNotificationResult result : results) {
+            if (!result.isAccepted()) {
+                rejected++;
+            } else if (result.isDuplicate()) {
+                duplicates++;
+            } else {
+                created++;
+                if (result.isSuppressed()) {
+                    suppressed++;
+                } else if (result.isCoalesced()) {
+                    coalesced++;
+                }
+            }
+        }
+        job.setLastUserId(chunk.lastUserId());
+        job.setProcessed(job.getProcessed() + results.size());
+        job.setCreated(job.getCreated() + created);
+        job.setSuppressed(job.getSuppressed() + suppressed);
+        job.setCoalesced(job.getCoalesced() + coalesced);
+        job.setDuplicates(job.getDuplicates() + duplicates);
+        job.setRejected(job.getRejected() + rejected);
+        transactionTemplate.execute(status -> jobRepository.checkpoint(job, leaseUntil()));
+
+        countUsers("accepted", created - suppressed - coalesced);
+        countUsers("suppressed", suppressed);
+        countUsers("coalesced", coalesced);
+        countUsers("duplicate", duplicates);
+        countUsers("rejected", rejected);
+    }
+
+    private void release(FanoutJob job, FanoutStatus status, int attempts, String error, LocalDateTime completedAt,
+                         LocalDateTime leaseUntil) {
+        job.setStatus(status);
+        job.setAttempts(attempts);
+        job.setError(error);
+        job.setLeaseUntil(leaseUntil);
+        transactionTemplate.execute(s ->
+                jobRepository.release(job.getId(), status, attempts, error, completedAt, leaseUntil));
+    }
+
+    private void countUsers(String outcome, long count) {
+        if (count > 0) {
+            Counter.builder("notification.fanout.users")
+                    .description("Users handled by fan-out jobs, by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment(count);
+        }
+    }
+
+    // retryBackoffMs doubled for each failed attempt after the first
+    private LocalDateTime retryAt(int attempts) {
+        long delayMs = properties.getFanout().getRetryBackoffMs() << Math.min(attempts - 1, 20);
+        return LocalDateTime.now().plusNanos(delayMs * 1_000_000);
+    }
+
+    private LocalDateTime leaseUntil() {
+        return LocalDateTime.now().plusNanos(properties.getFanout().getLeaseMs() * 1_000_000);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 512 ? message : message.substring(0, 512);
+    }
+}
@@ -1,36 +1,68 @@
 package com.example.notification.service;
 
+import com.example.notification.dto.InboxItem;
 import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+// In-app notifications are stored in the inbox when they are created; delivery pushes them to the user's open
+// connections. A user with no connection, here or on another node, sees them in the inbox on the next load.
 @Service
-public class InAppService {
+public class InAppService implements ChannelSender {
 
     private static final Logger log = LoggerFactory.getLogger(InAppService.class);
 
-    public boolean sendInAppNotification(Notification notification) {
-        try {
-            // In a real application, this might use WebSockets or a push notification service
-            // to deliver real-time notifications to the user's application
-            log.info("Sending in-app notification to user {}: {}",
-                    notification.getUser().getId(),
-                    notification.getContent());
-
-            // Simulate in-app notification with high success rate
-            boolean success = Math.random() > 0.05; // 95% success rate
-
-            if (success) {
-                log.info("In-app notification sent successfully");
-            } else {
-                log.error("Failed to send in-app notification");
-            }
-
-            return success;
-        } catch (Exception e) {
-            log.error("Error sending in-app notification: {}", e.getMessage(), e);
-            return false;
+    private final PushSessionRegistry pushSessions;
+    private final TemplateService templateService;
+    // Null unless notification.push.cluster-broadcast is enabled
+    private final PushRelay pushRelay;
+
+    public InAppService(PushSessionRegistry pushSessions,
+                        TemplateService templateService,
+                        Optional<PushRelay> pushRelay) {
+        this.pushSessions = pushSessions;
+        this.templateService = templateService;
+        this.pushRelay = pushRelay.orElse(null);
+    }
+
+    @Override
+    public NotificationType type() {
+        return NotificationType.IN_APP;
+    }
+
+    @Override
+    public CompletableFuture<DeliveryResult> send(Notification notification) {
+        if (notification.getUser() == null) {
+            return CompletableFuture.completedFuture(DeliveryResult.permanentFailure("Notification has no recipient"));
         }
+        sendInAppNotification(notification);
+        return CompletableFuture.completedFuture(DeliveryResult.delivered());
+    }
+
+    // Never blocks on the client: pushes only queue the event on each connection
+    public void sendInAppNotification(Notification notification) {
+        Long userId = notification.getUser().getId();
+        InboxItem item = toInboxItem(notification);
+        int pushed = pushSessions.push(userId, item);
+        log.debug("In-app notification {} pushed to {} connections of user {}", notification.getId(), pushed, userId);
+
+        if (pushed == 0 && pushRelay != null) {
+            pushRelay.relay(userId, item);
+        }
+    }
+
+    // As the inbox will list it once the delivery commits
+    private InboxItem toInboxItem(Notification notification) {
+        RenderedMessage message = templateService.render(notification);
+        return new InboxItem(notification.getId(), notification.getType(), message.subject(),
+                message.content(), NotificationStatus.SENT, false, notification.getCreatedAt(),
+                LocalDateTime.now());
     }
 }
@@ -0,0 +1,23 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import org.slf4j.event.Level;
+import org.springframework.stereotype.Component;
+
+// Picks the level for per-notification log lines. Sampling by ID keeps every line about a sampled notification,
+// from creation to delivery, while the rest stay at DEBUG and cost nothing unless DEBUG is enabled.
+@Component
+public class LogSampler {
+
+    private final long sampleEvery;
+
+    public LogSampler(NotificationProperties properties) {
+        this.sampleEvery = properties.getLogging().getSampleEvery();
+    }
+
+    public Level level(Long notificationId) {
+        return sampleEvery > 0 && notificationId != null && notificationId % sampleEvery == 0
+                ? Level.INFO
+                : Level.DEBUG;
+    }
+}
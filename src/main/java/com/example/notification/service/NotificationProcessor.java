@@ -1,14 +1,40 @@
 package com.example.notification.service;
 
+import com.example.notification.config.RabbitMQConfig;
 import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationPriority;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
 import com.example.notification.repository.NotificationRepository;
-import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class NotificationProcessor {
 
@@ -16,72 +42,217 @@ public class NotificationProcessor {
 
     private final NotificationRepository notificationRepository;
     private final NotificationService notificationService;
-    private final EmailService emailService;
-    private final SmsService smsService;
-    private final InAppService inAppService;
+    private final ChannelSenderRegistry channelSenderRegistry;
+    private final UserCache userCache;
+    private final NotificationTracing tracing;
+    private final LogSampler logSampler;
+    private final MeterRegistry meterRegistry;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Timer statusUpdateTimer;
+    private final Map<NotificationType, Map<DeliveryResult.Outcome, Counter>> deliveryCounters =
+            new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, Map<NotificationPriority, Timer>> endToEndTimers =
+            new EnumMap<>(NotificationType.class);
+    private final Map<String, Timer> queueLatencyTimers = new ConcurrentHashMap<>();
 
-    public NotificationProcessor(NotificationRepository notificationRepository, NotificationService notificationService, EmailService emailService, SmsService smsService, InAppService inAppService) {
+    public NotificationProcessor(NotificationRepository notificationRepository,
+                                 NotificationService notificationService,
+                                 ChannelSenderRegistry channelSenderRegistry,
+                                 UserCache userCache,
+                                 NotificationTracing tracing,
+                                 LogSampler logSampler,
+                                 MeterRegistry meterRegistry) {
         this.notificationRepository = notificationRepository;
         this.notificationService = notificationService;
-        this.emailService = emailService;
-        this.smsService = smsService;
-        this.inAppService = inAppService;
+        this.channelSenderRegistry = channelSenderRegistry;
+        this.userCache = userCache;
+        this.tracing = tracing;
+        this.logSampler = logSampler;
+        this.meterRegistry = meterRegistry;
+        this.batchTimer = Timer.builder("notification.dispatch.batch")
+                .description("Time to process one listener batch, from loading to status updates")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("notification.dispatch.batch.size")
+                .description("Notification IDs per listener batch")
+                .register(meterRegistry);
+        this.statusUpdateTimer = notificationService.statusUpdateTimer("batch");
+        for (NotificationType type : NotificationType.values()) {
+            Map<DeliveryResult.Outcome, Counter> counters = new EnumMap<>(DeliveryResult.Outcome.class);
+            for (DeliveryResult.Outcome outcome : DeliveryResult.Outcome.values()) {
+                counters.put(outcome, Counter.builder("notification.delivery")
+                        .description("Delivery attempts by channel and outcome")
+                        .tag("channel", type.name())
+                        .tag("outcome", outcome.name())
+                        .register(meterRegistry));
+            }
+            deliveryCounters.put(type, counters);
+
+            Map<NotificationPriority, Timer> timers = new EnumMap<>(NotificationPriority.class);
+            for (NotificationPriority priority : NotificationPriority.values()) {
+                timers.put(priority, Timer.builder("notification.end_to_end")
+                        .description("Time from creation (or scheduled time) to successful delivery")
+                        .tag("channel", type.name())
+                        .tag("priority", priority.name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+            endToEndTimers.put(type, timers);
+        }
     }
 
-    @RabbitListener(queues = "notification.queue")
+    // One listener container per channel queue, each with its own concurrency and prefetch. The priority
+    // queues get dedicated consumers with small batches, so HIGH notifications never queue behind a standard backlog.
+    @RabbitListener(id = "emailListener", queues = RabbitMQConfig.EMAIL_QUEUE,
+            containerFactory = "emailListenerContainerFactory")
+    @RabbitListener(id = "smsListener", queues = RabbitMQConfig.SMS_QUEUE,
+            containerFactory = "smsListenerContainerFactory")
+    @RabbitListener(id = "inAppListener", queues = RabbitMQConfig.IN_APP_QUEUE,
+            containerFactory = "inAppListenerContainerFactory")
+    @RabbitListener(id = "emailPriorityListener", queues = RabbitMQConfig.EMAIL_PRIORITY_QUEUE,
+            containerFactory = "emailPriorityListenerContainerFactory")
+    @RabbitListener(id = "smsPriorityListener", queues = RabbitMQConfig.SMS_PRIORITY_QUEUE,
+            containerFactory = "smsPriorityListenerContainerFactory")
+    @RabbitListener(id = "inAppPriorityListener", queues = RabbitMQConfig.IN_APP_PRIORITY_QUEUE,
+            containerFactory = "inAppPriorityListenerContainerFactory")
     @Transactional
-    public void processNotification(Long notificationId) {
-        log.info("Processing notification: {}", notificationId);
-
-        try {
-            Notification notification = notificationRepository.findById(notificationId)
-                    .orElseThrow(() -> new EntityNotFoundException("Notification not found with ID: " + notificationId));
-
-            boolean success = false;
-
-            // Process based on notification type
-            switch (notification.getType()) {
-                case EMAIL:
-                    if (notification.getUser().isEmailEnabled()) {
-                        success = emailService.sendEmail(notification);
-                    } else {
-                        log.info("Email notifications disabled for user {}", notification.getUser().getId());
-                        success = true; // Mark as success since user has opted out
-                    }
-                    break;
-
-                case SMS:
-                    if (notification.getUser().isSmsEnabled()) {
-                        success = smsService.sendSms(notification);
-                    } else {
-                        log.info("SMS notifications disabled for user {}", notification.getUser().getId());
-                        success = true; // Mark as success since user has opted out
-                    }
-                    break;
-
-                case IN_APP:
-                    if (notification.getUser().isInAppEnabled()) {
-                        success = inAppService.sendInAppNotification(notification);
-                    } else {
-                        log.info("In-app notifications disabled for user {}", notification.getUser().getId());
-                        success = true; // Mark as success since user has opted out
-                    }
-                    break;
-
-                default:
-                    log.error("Unknown notification type: {}", notification.getType());
-                    success = false;
+    public void receiveNotifications(List<Message<Long>> messages) {
+        long now = System.currentTimeMillis();
+        List<Long> notificationIds = new ArrayList<>(messages.size());
+        Map<Long, String> traceParents = new HashMap<>();
+        for (Message<Long> message : messages) {
+            Long notificationId = message.getPayload();
+            notificationIds.add(notificationId);
+            MessageHeaders headers = message.getHeaders();
+            // Set by the outbox relay when it publishes
+            Date timestamp = headers.get(AmqpHeaders.TIMESTAMP, Date.class);
+            if (timestamp != null) {
+                queueLatencyTimer(headers.get(AmqpHeaders.CONSUMER_QUEUE, String.class))
+                        .record(Math.max(0, now - timestamp.getTime()), TimeUnit.MILLISECONDS);
             }
+            String traceParent = headers.get(NotificationTracing.TRACE_PARENT_HEADER, String.class);
+            if (traceParent != null) {
+                traceParents.put(notificationId, traceParent);
+            }
+        }
+        process(notificationIds, traceParents);
+    }
+
+    @Transactional
+    public void processNotifications(List<Long> notificationIds) {
+        process(notificationIds, Map.of());
+    }
+
+    private void process(List<Long> notificationIds, Map<Long, String> traceParents) {
+        Timer.Sample batchSample = Timer.start(meterRegistry);
+        batchSize.record(notificationIds.size());
+        log.debug("Processing batch of {} notifications", notificationIds.size());
+
+        // Load the whole batch in a single query; users come from the near-cache instead of a join
+        List<Notification> loaded = notificationRepository.findAllById(notificationIds);
+        if (loaded.size() < notificationIds.size()) {
+            log.warn("{} notifications in batch not found", notificationIds.size() - loaded.size());
+        }
+
+        // Delivery is at-least-once: a redelivered ID whose notification was already sent, failed or
+        // suppressed is dropped here. Retries come back as PENDING once RetryScheduler claims them.
+        List<Notification> notifications = loaded.stream()
+                .filter(notification -> notification.getStatus() == NotificationStatus.PENDING)
+                .toList();
+        if (notifications.size() < loaded.size()) {
+            log.info("Skipping {} redelivered notifications that are no longer pending",
+                    loaded.size() - notifications.size());
+        }
 
-            // Update notification status based on result
-            if (success) {
-                notificationService.markNotificationAsSent(notificationId);
-            } else {
-                notificationService.markNotificationAsFailedWithRetry(notificationId);
+        // Reading the id of the lazy user proxy does not initialize it
+        Set<Long> userIds = new HashSet<>();
+        for (Notification notification : notifications) {
+            userIds.add(notification.getUser().getId());
+        }
+        Map<Long, User> users = userCache.getAll(userIds);
+
+        // Start every send before waiting on any of them, so the batch costs one provider round-trip
+        List<CompletableFuture<DeliveryResult>> results = new ArrayList<>(notifications.size());
+        List<Span> spans = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            spans.add(tracing.startDelivery(traceParents.get(notification.getId()), notification.getId(),
+                    notification.getType()));
+            results.add(dispatch(notification, users.get(notification.getUser().getId())));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+        Timer.Sample statusSample = Timer.start(meterRegistry);
+        for (int i = 0; i < notifications.size(); i++) {
+            Notification notification = notifications.get(i);
+            DeliveryResult result = results.get(i).join();
+
+            switch (result.outcome()) {
+                case DELIVERED -> {
+                    notificationService.applySent(notification);
+                    recordEndToEnd(notification);
+                }
+                case TRANSIENT_FAILURE -> notificationService.applyFailedWithRetry(notification);
+                case PERMANENT_FAILURE -> notificationService.applyFailed(notification, result.reason());
+                case SUPPRESSED -> notificationService.applySuppressed(notification);
+                case DEFERRED -> notificationService.applyDeferred(notification);
             }
+            deliveryCounters.get(notification.getType()).get(result.outcome()).increment();
+            log.atLevel(logSampler.level(notification.getId()))
+                    .log("Notification {} delivery via {}: {}", notification.getId(), notification.getType(),
+                            result.outcome());
+            Span span = spans.get(i);
+            span.tag("outcome", result.outcome().name());
+            span.end();
+        }
+        // Status changes go out as one JDBC batch; flushed here rather than at commit so their cost is measured.
+        // The container acks the whole batch after the commit.
+        notificationRepository.flush();
+        statusSample.stop(statusUpdateTimer);
+        batchSample.stop(batchTimer);
+    }
 
+    // Measured from the scheduled time for scheduled notifications, so the wait is not counted as latency
+    private void recordEndToEnd(Notification notification) {
+        LocalDateTime start = notification.getCreatedAt();
+        if (start == null) {
+            return;
+        }
+        if (notification.getScheduledAt() != null && notification.getScheduledAt().isAfter(start)) {
+            start = notification.getScheduledAt();
+        }
+        NotificationPriority priority = notification.getPriority() != null
+                ? notification.getPriority() : NotificationPriority.NORMAL;
+        endToEndTimers.get(notification.getType()).get(priority)
+                .record(Duration.between(start, notification.getSentAt()));
+    }
+
+    private Timer queueLatencyTimer(String queue) {
+        return queueLatencyTimers.computeIfAbsent(String.valueOf(queue), name -> Timer.builder("notification.queue.latency")
+                .description("Time from publish by the outbox relay to receipt by a listener")
+                .tag("queue", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private CompletableFuture<DeliveryResult> dispatch(Notification notification, User user) {
+        if (user == null) {
+            return CompletableFuture.completedFuture(DeliveryResult.permanentFailure("Recipient not found"));
+        }
+        // Senders read the cached user; it has the same primary key as the proxy it replaces,
+        // so the association is not dirty and is never written back
+        notification.setUser(user);
+
+        try {
+            // Opt-outs are normally caught at ingest; this covers preferences changed while the message was queued
+            if (!user.isChannelEnabled(notification.getType())) {
+                log.debug("{} notifications disabled for user {}", notification.getType(), user.getId());
+                return CompletableFuture.completedFuture(DeliveryResult.suppressed());
+            }
+            return channelSenderRegistry.send(notification);
         } catch (Exception e) {
-            log.error("Error processing notification {}: {}", notificationId, e.getMessage(), e);
+            log.error("Error processing notification {}: {}", notification.getId(), e.getMessage(), e);
+            return CompletableFuture.completedFuture(DeliveryResult.transientFailure(e.getMessage()));
         }
     }
-}
\ No newline at end of file
+}
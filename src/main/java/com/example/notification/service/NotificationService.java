@@ -1,149 +1,738 @@
 package com.example.notification.service;
 
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.dto.BulkNotificationResult;
+import com.example.notification.dto.InboxCursor;
+import com.example.notification.dto.InboxItem;
+import com.example.notification.dto.InboxPage;
 import com.example.notification.dto.NotificationRequest;
+import com.example.notification.dto.UnreadCount;
 import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationPriority;
 import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
+import com.example.notification.repository.ArchivedNotificationRepository;
 import com.example.notification.repository.NotificationRepository;
 import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class NotificationService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
-    private static final String NOTIFICATION_QUEUE = "notification.queue";
-    private static final int MAX_RETRY_COUNT = 3;
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    private static final String IDEMPOTENCY_KEY_TOO_LONG = "Idempotency key must be at most 128 characters";
 
     private final NotificationRepository notificationRepository;
+    private final ArchivedNotificationRepository archivedRepository;
     private final UserRepository userRepository;
-    private final RabbitTemplate rabbitTemplate;
+    private final UserCache userCache;
+    private final RecentIdempotencyKeys recentKeys;
+    private final RateLimiter rateLimiter;
+    private final ScheduledDeliveryService scheduledDelivery;
+    private final OutboxService outboxService;
+    private final ChannelSenderRegistry channelSenderRegistry;
+    private final TemplateService templateService;
+    private final NotificationTracing tracing;
+    private final LogSampler logSampler;
+    private final MeterRegistry meterRegistry;
+    private final NotificationProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter duplicateCounter;
+    private final DistributionSummary bulkSize;
+    private final Timer retrySweepTimer;
+    private final Counter retryRequeuedCounter;
+    // Built once so the per-notification paths never look meters up in the registry
+    private final Timer singleIngestSuccessTimer;
+    private final Timer singleIngestErrorTimer;
+    private final Timer bulkIngestSuccessTimer;
+    private final Timer bulkIngestErrorTimer;
+    private final Timer singleStatusUpdateTimer;
+    private final Map<NotificationType, Map<NotificationStatus, Counter>> createdCounters =
+            new EnumMap<>(NotificationType.class);
 
     public NotificationService(NotificationRepository notificationRepository,
+                               ArchivedNotificationRepository archivedRepository,
                                UserRepository userRepository,
-                               RabbitTemplate rabbitTemplate) {
+                               UserCache userCache,
+                               RecentIdempotencyKeys recentKeys,
+                               RateLimiter rateLimiter,
+                               ScheduledDeliveryService scheduledDelivery,
+                               OutboxService outboxService,
+                               ChannelSenderRegistry channelSenderRegistry,
+                               TemplateService templateService,
+                               NotificationTracing tracing,
+                               LogSampler logSampler,
+                               MeterRegistry meterRegistry,
+                               NotificationProperties properties,
+                               PlatformTransactionManager transactionManager) {
         this.notificationRepository = notificationRepository;
+        this.archivedRepository = archivedRepository;
         this.userRepository = userRepository;
-        this.rabbitTemplate = rabbitTemplate;
+        this.userCache = userCache;
+        this.recentKeys = recentKeys;
+        this.rateLimiter = rateLimiter;
+        this.scheduledDelivery = scheduledDelivery;
+        this.outboxService = outboxService;
+        this.channelSenderRegistry = channelSenderRegistry;
+        this.templateService = templateService;
+        this.tracing = tracing;
+        this.logSampler = logSampler;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.duplicateCounter = Counter.builder("notification.ingest.duplicates")
+                .description("Requests answered with an existing notification because of their idempotency key")
+                .register(meterRegistry);
+        this.bulkSize = DistributionSummary.builder("notification.ingest.bulk.size")
+                .description("Items per bulk request")
+                .register(meterRegistry);
+        this.retrySweepTimer = Timer.builder("notification.retry.sweep")
+                .description("Time to claim and requeue all due retries")
+                .register(meterRegistry);
+        this.retryRequeuedCounter = Counter.builder("notification.retry.requeued")
+                .description("Notifications requeued for another delivery attempt")
+                .register(meterRegistry);
+        this.singleIngestSuccessTimer = ingestTimer("single", "success");
+        this.singleIngestErrorTimer = ingestTimer("single", "error");
+        this.bulkIngestSuccessTimer = ingestTimer("bulk", "success");
+        this.bulkIngestErrorTimer = ingestTimer("bulk", "error");
+        this.singleStatusUpdateTimer = statusUpdateTimer("single");
+        for (NotificationType type : NotificationType.values()) {
+            Map<NotificationStatus, Counter> counters = new EnumMap<>(NotificationStatus.class);
+            for (NotificationStatus status : NotificationStatus.values()) {
+                counters.put(status, Counter.builder("notification.created")
+                        .description("Notifications stored, by channel and initial status")
+                        .tag("channel", type.name())
+                        .tag("status", status.name())
+                        .register(meterRegistry));
+            }
+            createdCounters.put(type, counters);
+        }
     }
 
+    // Timed without the commit, which happens when the transactional proxy returns
     @Transactional
     public Notification createNotification(NotificationRequest request) {
-        log.info("Creating notification for user: {}", request.getUserId());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean succeeded = false;
+        try {
+            Notification notification = create(request);
+            succeeded = true;
+            return notification;
+        } finally {
+            sample.stop(succeeded ? singleIngestSuccessTimer : singleIngestErrorTimer);
+        }
+    }
 
-        // Verify user exists
-        var user = userRepository.findById(request.getUserId())
+    private Notification create(NotificationRequest request) {
+        // A retried request returns the notification it created the first time, without sending again
+        String key = request.getIdempotencyKey();
+        if (key != null) {
+            // Only enforced here, for a key from the request body as well as from the Idempotency-Key header
+            if (key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new IllegalArgumentException(IDEMPOTENCY_KEY_TOO_LONG);
+            }
+            Optional<Notification> existing = findByIdempotencyKey(key);
+            if (existing.isPresent()) {
+                log.debug("Duplicate request for idempotency key, returning notification {}", existing.get().getId());
+                duplicateCounter.increment();
+                return existing.get();
+            }
+        }
+
+        String error = validateContent(request);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+
+        // Verify user exists against the near-cache; the insert only needs a reference for the foreign key
+        var preferences = userCache.get(request.getUserId())
                 .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + request.getUserId()));
+        var user = userRepository.getReferenceById(request.getUserId());
 
         // Create notification
-        var notification = Notification.builder()
+        var notification = buildNotification(request, user, preferences);
+
+        // Save notification
+        notification = notificationRepository.save(notification);
+        // Without user details or content; only sampled notifications are logged at INFO
+        log.atLevel(logSampler.level(notification.getId()))
+                .log("Notification {} created: {}, {} priority, status {}", notification.getId(),
+                        notification.getType(), notification.getPriority(), notification.getStatus());
+        countCreated(notification);
+        if (key != null) {
+            recentKeys.remember(key, notification.getId());
+        }
+
+        if (notification.getStatus() == NotificationStatus.SUPPRESSED) {
+            log.debug("{} notifications disabled for user {}, not sending", request.getType(), request.getUserId());
+            return notification;
+        }
+        if (notification.getStatus() == NotificationStatus.SCHEDULED) {
+            log.debug("Notification {} scheduled for {}", notification.getId(), notification.getScheduledAt());
+            scheduledDelivery.track(List.of(notification));
+            return notification;
+        }
+        userRepository.adjustUnreadCount(List.of(user.getId()), 1);
+
+        if (notification.getStatus() == NotificationStatus.COALESCED) {
+            log.debug("User {} is over the {} rate limit, notification {} held for the next digest",
+                    request.getUserId(), request.getType(), notification.getId());
+            return notification;
+        }
+
+        // Written in the same transaction; the outbox relay publishes it once committed
+        outboxService.enqueue(notification);
+
+        return notification;
+    }
+
+    @Transactional
+    public List<BulkNotificationResult> createNotifications(List<NotificationRequest> requests) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean succeeded = false;
+        try {
+            List<BulkNotificationResult> results = createAll(requests);
+            succeeded = true;
+            return results;
+        } finally {
+            sample.stop(succeeded ? bulkIngestSuccessTimer : bulkIngestErrorTimer);
+        }
+    }
+
+    private List<BulkNotificationResult> createAll(List<NotificationRequest> requests) {
+        int maxSize = properties.getBulk().getMaxSize();
+        if (requests.size() > maxSize) {
+            throw new IllegalArgumentException("Bulk request exceeds the maximum of " + maxSize + " notifications");
+        }
+
+        log.debug("Creating {} notifications in bulk", requests.size());
+        bulkSize.record(requests.size());
+
+        // Resolve every referenced user through the near-cache; misses are loaded with a single query
+        Set<Long> userIds = new HashSet<>();
+        for (NotificationRequest request : requests) {
+            if (request.getUserId() != null) {
+                userIds.add(request.getUserId());
+            }
+        }
+        Map<Long, User> users = userCache.getAll(userIds);
+        Map<String, Long> existingKeys = findExistingIdempotencyKeys(requests);
+
+        BulkNotificationResult[] results = new BulkNotificationResult[requests.size()];
+        List<Notification> notifications = new ArrayList<>(requests.size());
+        List<Integer> indexes = new ArrayList<>(requests.size());
+        // Repeated keys within this request resolve to the first item that used them
+        Map<String, Integer> firstIndexByKey = new HashMap<>();
+        Map<Integer, Integer> repeatedInRequest = new HashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            NotificationRequest request = requests.get(i);
+            String error = validate(request, users);
+            if (error != null) {
+                results[i] = BulkNotificationResult.rejected(i, error);
+                continue;
+            }
+
+            String key = request.getIdempotencyKey();
+            if (key != null) {
+                Long existingId = existingKeys.get(key);
+                if (existingId != null) {
+                    results[i] = BulkNotificationResult.duplicate(i, existingId);
+                    continue;
+                }
+                Integer firstIndex = firstIndexByKey.putIfAbsent(key, i);
+                if (firstIndex != null) {
+                    repeatedInRequest.put(i, firstIndex);
+                    continue;
+                }
+            }
+
+            notifications.add(buildNotification(request,
+                    userRepository.getReferenceById(request.getUserId()), users.get(request.getUserId())));
+            indexes.add(i);
+        }
+
+        // Save all rows in one call so Hibernate can group the inserts into JDBC batches
+        List<Notification> saved = notificationRepository.saveAll(notifications);
+        List<Notification> unread = new ArrayList<>(saved.size());
+        List<Notification> deliverable = new ArrayList<>(saved.size());
+        List<Notification> scheduled = new ArrayList<>();
+        int suppressed = 0;
+        for (int i = 0; i < saved.size(); i++) {
+            int index = indexes.get(i);
+            Notification notification = saved.get(i);
+            if (notification.getIdempotencyKey() != null) {
+                recentKeys.remember(notification.getIdempotencyKey(), notification.getId());
+            }
+            countCreated(notification);
+            switch (notification.getStatus()) {
+                case SUPPRESSED -> {
+                    results[index] = BulkNotificationResult.suppressed(index, notification.getId());
+                    suppressed++;
+                }
+                case SCHEDULED -> {
+                    results[index] = BulkNotificationResult.scheduled(index, notification.getId());
+                    scheduled.add(notification);
+                }
+                case COALESCED -> {
+                    results[index] = BulkNotificationResult.coalesced(index, notification.getId());
+                    unread.add(notification);
+                }
+                default -> {
+                    results[index] = BulkNotificationResult.accepted(index, notification.getId());
+                    unread.add(notification);
+                    deliverable.add(notification);
+                }
+            }
+        }
+        repeatedInRequest.forEach((index, firstIndex) ->
+                results[index] = BulkNotificationResult.duplicate(index, results[firstIndex].getNotificationId()));
+        long duplicates = Arrays.stream(results).filter(BulkNotificationResult::isDuplicate).count();
+        duplicateCounter.increment(duplicates);
+        log.info("Bulk request created {} notifications ({} suppressed by user preferences, {} held for digest,"
+                        + " {} scheduled), {} duplicates, rejected {}",
+                saved.size(), suppressed, unread.size() - deliverable.size(), scheduled.size(), duplicates,
+                requests.size() - saved.size() - duplicates);
+
+        UnreadCounts.increment(userRepository, unread.stream().map(n -> n.getUser().getId()).toList());
+        outboxService.enqueueAll(deliverable);
+        if (!scheduled.isEmpty()) {
+            scheduledDelivery.track(scheduled);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private Timer ingestTimer(String operation, String outcome) {
+        return Timer.builder("notification.ingest")
+                .description("Time to accept a notification request, excluding the commit")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void countCreated(Notification notification) {
+        createdCounters.get(notification.getType()).get(notification.getStatus()).increment();
+    }
+
+    private Optional<Notification> findByIdempotencyKey(String key) {
+        Long notificationId = recentKeys.find(key);
+        if (notificationId != null) {
+            return notificationRepository.findById(notificationId);
+        }
+        return notificationRepository.findByIdempotencyKey(key);
+    }
+
+    // Recent-key LRU first; whatever it does not know is looked up on the unique index in one query
+    private Map<String, Long> findExistingIdempotencyKeys(List<NotificationRequest> requests) {
+        Map<String, Long> existing = new HashMap<>();
+        Set<String> misses = new HashSet<>();
+        for (NotificationRequest request : requests) {
+            String key = request.getIdempotencyKey();
+            if (key == null) {
+                continue;
+            }
+            Long notificationId = recentKeys.find(key);
+            if (notificationId != null) {
+                existing.put(key, notificationId);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Notification notification : notificationRepository.findByIdempotencyKeyIn(misses)) {
+                existing.put(notification.getIdempotencyKey(), notification.getId());
+            }
+        }
+        return existing;
+    }
+
+    // Opted-out channels are resolved here, before anything is queued: the row is stored as SUPPRESSED
+    // and read, so it never reaches a listener, never shows in the inbox and never counts as unread.
+    // Notifications over the user's rate limit are kept in the inbox but wait for the next digest.
+    // Notifications with a future scheduledAt are held by ScheduledDeliveryService until due.
+    private Notification buildNotification(NotificationRequest request, User user, User preferences) {
+        // Transactional (HIGH) messages are never held back for a digest
+        NotificationPriority priority = request.getPriority() != null ? request.getPriority() : NotificationPriority.NORMAL;
+        NotificationStatus status;
+        if (!preferences.isChannelEnabled(request.getType())) {
+            status = NotificationStatus.SUPPRESSED;
+        } else if (request.getScheduledAt() != null && request.getScheduledAt().isAfter(LocalDateTime.now())) {
+            // Rate limited when released rather than now
+            status = NotificationStatus.SCHEDULED;
+        } else if (priority != NotificationPriority.HIGH
+                && !rateLimiter.tryAcquire(preferences.getId(), request.getType())) {
+            status = NotificationStatus.COALESCED;
+        } else {
+            status = NotificationStatus.PENDING;
+        }
+        return Notification.builder()
                 .user(user)
                 .type(request.getType())
                 .content(request.getContent())
                 .subject(request.getSubject())
+                .templateId(request.getTemplateId())
+                .templateVariables(request.getTemplateId() != null ? request.getVariables() : null)
+                .idempotencyKey(request.getIdempotencyKey())
+                .priority(priority)
+                .traceParent(tracing.currentTraceParent())
+                .scheduledAt(status == NotificationStatus.SCHEDULED ? request.getScheduledAt() : null)
+                .status(status)
+                // Suppressed rows never count as unread; scheduled ones start counting when released
+                .read(status == NotificationStatus.SUPPRESSED || status == NotificationStatus.SCHEDULED)
                 .build();
+    }
 
-        // Save notification
-        notification = notificationRepository.save(notification);
-        log.info("Notification created with ID: {}", notification.getId());
+    private String validate(NotificationRequest request, Map<Long, User> users) {
+        if (request.getUserId() == null) {
+            return "User ID is required";
+        }
+        if (request.getType() == null) {
+            return "Notification type is required";
+        }
+        String error = validateContent(request);
+        if (error != null) {
+            return error;
+        }
+        if (request.getIdempotencyKey() != null && request.getIdempotencyKey().length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return IDEMPOTENCY_KEY_TOO_LONG;
+        }
+        if (!users.containsKey(request.getUserId())) {
+            return "User not found with ID: " + request.getUserId();
+        }
+        return null;
+    }
 
-        try {
-            // Send to queue for processing
-            rabbitTemplate.convertAndSend(NOTIFICATION_QUEUE, notification.getId());
-            log.info("Notification ID {} sent to queue for processing", notification.getId());
-        } catch (Exception e) {
-            log.error("Failed to send notification to queue: {}", e.getMessage(), e);
-            // Optionally process immediately as fallback
-            // processNotificationDirectly(notification);
+    // Either literal content or a registered template with every variable it uses
+    String validateContent(NotificationRequest request) {
+        if (request.getTemplateId() == null) {
+            return request.getContent() == null || request.getContent().isBlank() ? "Content cannot be empty" : null;
         }
+        if (request.getContent() != null) {
+            return "Content and template ID are mutually exclusive";
+        }
+        return templateService.validate(request.getTemplateId(), request.getVariables());
+    }
 
-        return notification;
+    public InboxPage getUserNotifications(Long userId, String cursor, int limit) {
+        return getUserNotifications(userId, cursor, limit, false);
     }
 
+    // With includeArchived the page continues into notifications moved out by retention, in the same order
+    // and with the same cursor, so a client can page through its whole history
     @Transactional(readOnly = true)
-    public List<Notification> getUserNotifications(Long userId) {
-        log.info("Fetching notifications for user: {}", userId);
+    public InboxPage getUserNotifications(Long userId, String cursor, int limit, boolean includeArchived) {
+        log.debug("Fetching notifications for user: {}", userId);
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int pageSize = Math.min(limit, properties.getInbox().getMaxPageSize());
 
         // Verify user exists
         if (!userRepository.existsById(userId)) {
             throw new EntityNotFoundException("User not found with ID: " + userId);
         }
 
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        // Fetch one extra row to learn whether another page follows
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        InboxCursor position = cursor == null ? null : InboxCursor.decode(cursor);
+        List<InboxItem> items = position == null
+                ? notificationRepository.findInbox(userId, page)
+                : notificationRepository.findInboxAfter(userId, position.createdAt(), position.id(), page);
+        if (includeArchived) {
+            List<InboxItem> archived = position == null
+                    ? archivedRepository.findInbox(userId, page)
+                    : archivedRepository.findInboxAfter(userId, position.createdAt(), position.id(), page);
+            items = newestFirst(items, archived, pageSize + 1);
+        }
+
+        boolean more = items.size() > pageSize;
+        if (more) {
+            items = items.subList(0, pageSize);
+        }
+        // Only the rows actually returned are rendered
+        for (InboxItem item : items) {
+            templateService.render(item);
+        }
+        if (!more) {
+            return new InboxPage(items, null);
+        }
+        return new InboxPage(items, InboxCursor.of(items.get(pageSize - 1)).encode());
+    }
+
+    // Merges two inbox pages that are each in (createdAt DESC, id DESC) order. The two queries see different
+    // snapshots under READ COMMITTED, so a row retention moved in between can be in both; it sorts to the same
+    // position in each and is kept once, as archived.
+    private static List<InboxItem> newestFirst(List<InboxItem> live, List<InboxItem> archived, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        if (live.isEmpty()) {
+            return archived;
+        }
+        List<InboxItem> merged = new ArrayList<>(Math.min(limit, live.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < live.size() || j < archived.size())) {
+            if (i < live.size() && j < archived.size() && live.get(i).getId().equals(archived.get(j).getId())) {
+                i++;
+                merged.add(archived.get(j++));
+            } else if (j == archived.size() || (i < live.size() && newer(live.get(i), archived.get(j)))) {
+                merged.add(live.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    private static boolean newer(InboxItem a, InboxItem b) {
+        int byTime = a.getCreatedAt().compareTo(b.getCreatedAt());
+        return byTime != 0 ? byTime > 0 : a.getId() > b.getId();
+    }
+
+    @Transactional(readOnly = true)
+    public UnreadCount getUnreadCount(Long userId) {
+        // Primary-key read of the maintained counter; never a COUNT over notifications
+        long count = userRepository.findUnreadCount(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + userId));
+        return new UnreadCount(count);
+    }
+
+    @Transactional
+    public UnreadCount markAsRead(Long userId, Collection<Long> notificationIds) {
+        if (notificationIds.isEmpty()) {
+            return getUnreadCount(userId);
+        }
+        return applyRead(userId, notificationRepository.markRead(userId, notificationIds));
+    }
+
+    // Marks the cursor row and everything older as read; without a cursor, the whole inbox
+    @Transactional
+    public UnreadCount markAllAsRead(Long userId, String cursor) {
+        int changed;
+        if (cursor == null) {
+            changed = notificationRepository.markAllRead(userId);
+        } else {
+            InboxCursor position = InboxCursor.decode(cursor);
+            changed = notificationRepository.markReadThrough(userId, position.createdAt(), position.id());
+        }
+        return applyRead(userId, changed);
+    }
+
+    private UnreadCount applyRead(Long userId, int changed) {
+        if (changed > 0) {
+            userRepository.adjustUnreadCount(List.of(userId), -changed);
+        }
+        return getUnreadCount(userId);
     }
 
     @Transactional
     public void markNotificationAsSent(Long notificationId) {
-        log.info("Marking notification {} as sent", notificationId);
+        log.debug("Marking notification {} as sent", notificationId);
+        Timer.Sample sample = Timer.start(meterRegistry);
 
         var notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new EntityNotFoundException("Notification not found with ID: " + notificationId));
 
-        notification.setStatus(NotificationStatus.SENT);
-        notification.setSentAt(LocalDateTime.now());
+        applySent(notification);
 
         notificationRepository.save(notification);
-        log.info("Notification {} marked as SENT", notificationId);
+        sample.stop(singleStatusUpdateTimer);
+        log.debug("Notification {} marked as SENT", notificationId);
     }
 
     @Transactional
     public void markNotificationAsFailedWithRetry(Long notificationId) {
-        log.info("Marking notification {} as failed for retry", notificationId);
+        log.debug("Marking notification {} as failed for retry", notificationId);
+        Timer.Sample sample = Timer.start(meterRegistry);
 
         var notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new EntityNotFoundException("Notification not found with ID: " + notificationId));
 
+        applyFailedWithRetry(notification);
+
+        notificationRepository.save(notification);
+        sample.stop(singleStatusUpdateTimer);
+    }
+
+    // Shared with NotificationProcessor, which records its batched updates with mode=batch
+    // Called once per mode at construction; NotificationProcessor keeps its own "batch" timer
+    Timer statusUpdateTimer(String mode) {
+        return Timer.builder("notification.status.update")
+                .description("Time to write delivery status changes")
+                .tag("mode", mode)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    // Status transitions on an already loaded notification; callers decide when it is flushed
+    void applySent(Notification notification) {
+        notification.setStatus(NotificationStatus.SENT);
+        notification.setSentAt(LocalDateTime.now());
+    }
+
+    // The user opted out after the notification was queued. Flip read with a conditional UPDATE so the
+    // unread counter is only decremented if a concurrent mark-read has not already done so
+    void applySuppressed(Notification notification) {
+        notification.setStatus(NotificationStatus.SUPPRESSED);
+        notification.setNextRetryAt(null);
+        Long userId = notification.getUser().getId();
+        if (notificationRepository.markRead(userId, List.of(notification.getId())) > 0) {
+            userRepository.adjustUnreadCount(List.of(userId), -1);
+        }
+    }
+
+    // Permanent failures are not retried
+    void applyFailed(Notification notification, String reason) {
+        log.warn("Notification {} failed permanently: {}", notification.getId(), reason);
+        notification.setStatus(NotificationStatus.FAILED);
+    }
+
+    // The channel's circuit is open. Parked as RETRY without using up an attempt
+    void applyDeferred(Notification notification) {
+        notification.setStatus(NotificationStatus.RETRY);
+        notification.setNextRetryAt(LocalDateTime.now().plus(parkDelay(notification.getType())));
+    }
+
+    // A random point in the open period after the current one, so a parked backlog comes back spread out
+    // rather than all at once when the circuit closes
+    private Duration parkDelay(NotificationType type) {
+        long openMs = properties.getChannels().get(type).getCircuitBreaker().getOpenDurationMs();
+        return Duration.ofMillis(openMs + ThreadLocalRandom.current().nextLong(openMs + 1));
+    }
+
+    void applyFailedWithRetry(Notification notification) {
         notification.setRetryCount(notification.getRetryCount() + 1);
 
-        if (notification.getRetryCount() >= MAX_RETRY_COUNT) {
+        int maxRetryCount = properties.getRetry().getMaxRetryCount();
+        if (notification.getRetryCount() >= maxRetryCount) {
             log.warn("Notification {} has reached max retry count ({}). Marking as FAILED",
-                    notificationId, MAX_RETRY_COUNT);
+                    notification.getId(), maxRetryCount);
             notification.setStatus(NotificationStatus.FAILED);
+            notification.setNextRetryAt(null);
         } else {
-            log.info("Scheduling notification {} for retry. Retry count: {}",
-                    notificationId, notification.getRetryCount());
+            Duration delay = retryDelay(notification.getRetryCount());
+            log.atLevel(logSampler.level(notification.getId()))
+                    .log("Scheduling notification {} for retry in {} ms. Retry count: {}",
+                            notification.getId(), delay.toMillis(), notification.getRetryCount());
             notification.setStatus(NotificationStatus.RETRY);
+            notification.setNextRetryAt(LocalDateTime.now().plus(delay));
         }
+    }
 
-        notificationRepository.save(notification);
+    // Exponential backoff with "equal jitter": half of the delay is fixed, the other half random,
+    // so retries of a burst of failures spread out instead of hitting the provider together
+    Duration retryDelay(int retryCount) {
+        NotificationProperties.Retry retry = properties.getRetry();
+        double exponential = retry.getInitialDelayMs() * Math.pow(retry.getMultiplier(), Math.max(0, retryCount - 1));
+        long delay = (long) Math.min(exponential, retry.getMaxDelayMs());
+        long half = delay / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(delay - half + 1));
     }
 
-    @Transactional
+    // Not transactional itself: every chunk is claimed, requeued and committed in its own transaction,
+    // so a large backlog never sits in memory or in one long-running transaction
     public void retryFailedNotifications() {
-        log.info("Looking for notifications to retry");
+        log.debug("Looking for notifications due for retry");
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        int chunkSize = properties.getRetry().getSweepChunkSize();
+        LocalDateTime now = LocalDateTime.now();
+        long cursor = 0;
+        int requeued = 0;
 
-        List<Notification> retryNotifications = notificationRepository.findByStatus(NotificationStatus.RETRY);
+        // Probes already requeued this sweep per half-open channel
+        Map<NotificationType, Integer> probes = new EnumMap<>(NotificationType.class);
+        RetryChunk chunk;
+        do {
+            long afterId = cursor;
+            chunk = transactionTemplate.execute(status -> requeueDueRetries(now, afterId, chunkSize, probes));
+            if (chunk == null || chunk.claimed() == 0) {
+                break;
+            }
+            cursor = chunk.lastId();
+            requeued += chunk.requeued();
+        } while (chunk.claimed() == chunkSize);
 
-        if (retryNotifications.isEmpty()) {
-            log.info("No notifications found for retry");
-            return;
+        sample.stop(retrySweepTimer);
+        retryRequeuedCounter.increment(requeued);
+        if (requeued > 0) {
+            log.info("Requeued {} notifications for retry", requeued);
+        } else {
+            log.debug("No notifications due for retry");
         }
+    }
 
-        log.info("Found {} notifications to retry", retryNotifications.size());
+    private record RetryChunk(int claimed, int requeued, long lastId) {
+    }
 
-        for (Notification notification : retryNotifications) {
-            log.info("Requeueing notification {} for retry attempt {}",
-                    notification.getId(), notification.getRetryCount());
+    private RetryChunk requeueDueRetries(LocalDateTime now, long afterId, int chunkSize,
+                                         Map<NotificationType, Integer> probes) {
+        List<Notification> due = notificationRepository.findDueRetries(now, afterId, PageRequest.of(0, chunkSize));
+        if (due.isEmpty()) {
+            return new RetryChunk(0, 0, afterId);
+        }
 
-            // Reset to pending state before requeueing
-            notification.setStatus(NotificationStatus.PENDING);
-            notificationRepository.save(notification);
+        // Rows for a channel whose circuit is open are parked again instead of requeued to fail or be deferred;
+        // a half-open channel gets only as many as it has probes
+        List<Notification> requeue = new ArrayList<>(due.size());
+        for (Notification notification : due) {
+            NotificationType type = notification.getType();
+            boolean admit = switch (channelSenderRegistry.circuitState(type)) {
+                case CLOSED -> true;
+                case HALF_OPEN -> probes.merge(type, 1, Integer::sum)
+                        <= properties.getChannels().get(type).getCircuitBreaker().getHalfOpenProbes();
+                case OPEN -> false;
+            };
+            if (admit) {
+                requeue.add(notification);
+            } else {
+                // Flushed with the transaction
+                notification.setNextRetryAt(now.plus(parkDelay(type)));
+            }
+        }
 
-            try {
-                // Requeue for processing
-                rabbitTemplate.convertAndSend(NOTIFICATION_QUEUE, notification.getId());
-            } catch (Exception e) {
-                log.error("Failed to requeue notification {}: {}", notification.getId(), e.getMessage(), e);
-                notification.setStatus(NotificationStatus.RETRY); // Reset back to retry
-                notificationRepository.save(notification);
+        // Claim the admitted rows with one UPDATE and requeue them through the outbox in the same transaction
+        if (!requeue.isEmpty()) {
+            List<Long> ids = new ArrayList<>(requeue.size());
+            for (Notification notification : requeue) {
+                ids.add(notification.getId());
             }
+            notificationRepository.claimForRetry(ids);
+            outboxService.enqueueAll(requeue);
         }
+        return new RetryChunk(due.size(), requeue.size(), due.get(due.size() - 1).getId());
     }
 }
\ No newline at end of file
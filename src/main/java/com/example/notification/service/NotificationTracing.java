@@ -0,0 +1,50 @@
+package com.example.notification.service;
+
+import com.example.notification.model.NotificationType;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Carries the W3C trace context of the request that created a notification through the outbox and the
+// broker to its delivery. The context is stored with the notification, so retries and scheduled releases
+// still continue the original trace.
+@Component
+public class NotificationTracing {
+
+    public static final String TRACE_PARENT_HEADER = "traceparent";
+
+    private final Tracer tracer;
+    private final Propagator propagator;
+
+    public NotificationTracing(Tracer tracer, Propagator propagator) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    // traceparent of the current span, or null outside a traced request
+    public String currentTraceParent() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>(2);
+        propagator.inject(span.context(), carrier, Map::put);
+        return carrier.get(TRACE_PARENT_HEADER);
+    }
+
+    // Consumer span for one delivery attempt, a child of the creating request when its context is known
+    public Span startDelivery(String traceParent, Long notificationId, NotificationType type) {
+        Span.Builder builder = traceParent == null
+                ? tracer.spanBuilder()
+                : propagator.extract(Map.of(TRACE_PARENT_HEADER, traceParent), Map::get);
+        return builder.name("notification deliver")
+                .kind(Span.Kind.CONSUMER)
+                .tag("notification.id", String.valueOf(notificationId))
+                .tag("channel", type.name())
+                .start();
+    }
+}
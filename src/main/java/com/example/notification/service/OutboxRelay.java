@@ -0,0 +1,44 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxService outboxService;
+    private final NotificationProperties properties;
+
+    public OutboxRelay(OutboxService outboxService, NotificationProperties properties) {
+        this.outboxService = outboxService;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:500}")
+    public void relay() {
+        try {
+            // Keep draining while batches come back full
+            int published;
+            do {
+                published = outboxService.publishPendingBatch();
+            } while (published == properties.getOutbox().getBatchSize());
+        } catch (Exception e) {
+            // Rows stay unpublished and are picked up again on the next run
+            log.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    // Run every hour
+    @Scheduled(fixedRate = 3600000)
+    public void purgePublished() {
+        int deleted = outboxService.purgePublished();
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.config.RabbitMQConfig;
+import com.example.notification.model.Notification;
+import com.example.notification.model.OutboxEvent;
+import com.example.notification.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final NotificationProperties properties;
+    private final Counter publishedCounter;
+
+    // Creation time of the oldest event the relay has seen but not yet published
+    private final AtomicReference<LocalDateTime> oldestPending = new AtomicReference<>();
+
+    public OutboxService(OutboxEventRepository outboxEventRepository,
+                         RabbitTemplate rabbitTemplate,
+                         NotificationProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.properties = properties;
+        this.publishedCounter = Counter.builder("notification.outbox.published")
+                .description("Outbox events confirmed by the broker")
+                .register(meterRegistry);
+        Gauge.builder("notification.outbox.lag", this, OutboxService::lagSeconds)
+                .description("Age in seconds of the oldest outbox event not yet published")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // Must be called inside the transaction that writes the notification row
+    public void enqueue(Notification notification) {
+        outboxEventRepository.save(event(notification));
+    }
+
+    public void enqueueAll(Collection<Notification> notifications) {
+        List<OutboxEvent> events = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            events.add(event(notification));
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    @Transactional
+    public int publishPendingBatch() {
+        int batchSize = properties.getOutbox().getBatchSize();
+        List<OutboxEvent> events = outboxEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+
+        if (events.isEmpty()) {
+            oldestPending.set(null);
+            return 0;
+        }
+        oldestPending.set(events.get(0).getCreatedAt());
+
+        // Publish the whole batch on one channel and wait for the broker to confirm all of it
+        long confirmTimeout = properties.getOutbox().getConfirmTimeoutMs();
+        rabbitTemplate.invoke(operations -> {
+            Date now = new Date();
+            for (OutboxEvent event : events) {
+                // The timestamp lets consumers measure time spent in the queue
+                operations.convertAndSend(event.getExchange(), event.getRoutingKey(), event.getNotificationId(),
+                        message -> {
+                            message.getMessageProperties().setTimestamp(now);
+                            if (event.getTraceParent() != null) {
+                                message.getMessageProperties().setHeader(
+                                        NotificationTracing.TRACE_PARENT_HEADER, event.getTraceParent());
+                            }
+                            return message;
+                        });
+            }
+            operations.waitForConfirmsOrDie(confirmTimeout);
+            return null;
+        });
+
+        List<Long> ids = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            ids.add(event.getId());
+        }
+        outboxEventRepository.markPublished(ids, LocalDateTime.now());
+        publishedCounter.increment(events.size());
+
+        if (events.size() < batchSize) {
+            oldestPending.set(null);
+        }
+        log.debug("Published {} outbox events", events.size());
+        return events.size();
+    }
+
+    @Transactional
+    public int purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(properties.getOutbox().getRetentionHours());
+        return outboxEventRepository.deletePublishedBefore(cutoff);
+    }
+
+    double lagSeconds() {
+        LocalDateTime oldest = oldestPending.get();
+        return oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    // Routed by type and priority so each channel queue only receives its own lane's notifications.
+    // Retries are re-enqueued through here too and stay in their lane.
+    private OutboxEvent event(Notification notification) {
+        return OutboxEvent.builder()
+                .notificationId(notification.getId())
+                .exchange(RabbitMQConfig.NOTIFICATION_EXCHANGE)
+                .routingKey(RabbitMQConfig.routingKey(notification.getType(), notification.getPriority()))
+                .traceParent(notification.getTraceParent())
+                .build();
+    }
+}
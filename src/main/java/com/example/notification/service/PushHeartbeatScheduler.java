@@ -0,0 +1,19 @@
+package com.example.notification.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PushHeartbeatScheduler {
+
+    private final PushSessionRegistry pushSessions;
+
+    public PushHeartbeatScheduler(PushSessionRegistry pushSessions) {
+        this.pushSessions = pushSessions;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.push.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        pushSessions.heartbeat();
+    }
+}
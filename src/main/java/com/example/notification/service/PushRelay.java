@@ -0,0 +1,61 @@
+package com.example.notification.service;
+
+import com.example.notification.config.RabbitMQConfig;
+import com.example.notification.dto.InboxItem;
+import com.example.notification.dto.PushMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ExecutorService;
+
+// Relays in-app notifications for users with no connection on this node to every other node over the push fanout.
+// Only created with notification.push.cluster-broadcast=true, like the push queue it consumes.
+@Service
+@ConditionalOnProperty(name = "notification.push.cluster-broadcast", havingValue = "true")
+public class PushRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(PushRelay.class);
+
+    private final PushSessionRegistry pushSessions;
+    private final RabbitTemplate rabbitTemplate;
+    private final ExecutorService executor;
+    // This node's push queue name, unique per node; relays carry it so the sender can drop its own copy
+    private final String nodeId;
+
+    public PushRelay(PushSessionRegistry pushSessions,
+                     RabbitTemplate rabbitTemplate,
+                     @Qualifier("channelSenderExecutor") ExecutorService executor,
+                     @Qualifier("pushQueue") Queue pushQueue) {
+        this.pushSessions = pushSessions;
+        this.rabbitTemplate = rabbitTemplate;
+        this.executor = executor;
+        this.nodeId = pushQueue.getName();
+    }
+
+    public void relay(Long userId, InboxItem item) {
+        // Off the listener thread; losing the relay only means the client finds it in the inbox instead
+        executor.execute(() -> {
+            try {
+                rabbitTemplate.convertAndSend(RabbitMQConfig.PUSH_EXCHANGE, "", new PushMessage(nodeId, userId, item));
+            } catch (Exception e) {
+                log.debug("Could not relay in-app notification {}: {}", item.getId(), e.getMessage());
+            }
+        });
+    }
+
+    // Relayed from another node. The fanout also returns the sender's own copy, which it already knows it cannot
+    // deliver, so that one is dropped.
+    @RabbitListener(queues = "#{pushQueue.name}", containerFactory = "pushListenerContainerFactory")
+    public void receive(PushMessage message) {
+        if (nodeId.equals(message.getOriginNode())) {
+            return;
+        }
+        pushSessions.push(message.getUserId(), message.getItem());
+    }
+}
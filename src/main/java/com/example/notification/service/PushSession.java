@@ -0,0 +1,83 @@
+package com.example.notification.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// One server-sent events connection. Events wait in a bounded buffer and are written by at most one drain task
+// at a time, so a slow client never blocks the listener thread delivering to it.
+public class PushSession {
+
+    private final Long userId;
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+    private final Executor executor;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    PushSession(Long userId, SseEmitter emitter, int bufferSize, Executor executor) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.executor = executor;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    // False when the session is closed or its buffer is full; never blocks
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed || !buffer.offer(event)) {
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    boolean isIdle() {
+        return buffer.isEmpty();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+        buffer.clear();
+        emitter.complete();
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed && (event = buffer.poll()) != null) {
+                emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the emitter's completion callback unregisters the session
+            close();
+        } finally {
+            draining.set(false);
+        }
+        // An event offered after the loop saw an empty buffer but before draining was reset
+        if (!closed && !buffer.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.dto.InboxItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+// Live push connections on this node by user. Connects and disconnects are rare next to pushes, so each
+// user's sessions are a copy-on-write list that pushes read without locking.
+@Component
+public class PushSessionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PushSessionRegistry.class);
+
+    private final Map<Long, List<PushSession>> sessions = new ConcurrentHashMap<>();
+    private final NotificationProperties properties;
+    private final ExecutorService executor;
+    private final Counter pushedCounter;
+    private final Counter offlineCounter;
+    private final Counter overflowCounter;
+
+    public PushSessionRegistry(NotificationProperties properties,
+                               @Qualifier("channelSenderExecutor") ExecutorService executor,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.executor = executor;
+        this.pushedCounter = pushCounter(meterRegistry, "pushed");
+        this.offlineCounter = pushCounter(meterRegistry, "offline");
+        this.overflowCounter = pushCounter(meterRegistry, "overflow");
+        Gauge.builder("notification.push.sessions", sessions, PushSessionRegistry::countSessions)
+                .description("Open push connections on this node")
+                .register(meterRegistry);
+    }
+
+    public PushSession open(Long userId) {
+        NotificationProperties.Push push = properties.getPush();
+        SseEmitter emitter = new SseEmitter(push.getSessionTimeoutMs());
+        PushSession session = new PushSession(userId, emitter, push.getBufferSize(), executor);
+        emitter.onCompletion(() -> remove(session));
+        emitter.onTimeout(() -> remove(session));
+        emitter.onError(e -> remove(session));
+
+        List<PushSession> evicted = new ArrayList<>();
+        sessions.compute(userId, (id, userSessions) -> {
+            List<PushSession> updated = userSessions == null ? new CopyOnWriteArrayList<>() : userSessions;
+            updated.add(session);
+            while (updated.size() > push.getMaxSessionsPerUser()) {
+                evicted.add(updated.remove(0));
+            }
+            return updated;
+        });
+        evicted.forEach(PushSession::close);
+        log.debug("Push session opened for user {}", userId);
+        return session;
+    }
+
+    // Number of sessions the item was queued on; 0 when the user has no connection here or every one is full
+    public int push(Long userId, InboxItem item) {
+        List<PushSession> userSessions = sessions.get(userId);
+        if (userSessions == null) {
+            offlineCounter.increment();
+            return 0;
+        }
+        int queued = 0;
+        boolean overflowed = false;
+        for (PushSession session : userSessions) {
+            SseEmitter.SseEventBuilder event = SseEmitter.event()
+                    .id(String.valueOf(item.getId()))
+                    .name("notification")
+                    .data(item, MediaType.APPLICATION_JSON);
+            if (session.offer(event)) {
+                queued++;
+            } else if (!session.isClosed()) {
+                // Too far behind to catch up event by event; the client reconnects and reloads its inbox
+                log.debug("Push buffer full for user {}, closing session", userId);
+                remove(session);
+                session.close();
+                overflowCounter.increment();
+                overflowed = true;
+            }
+        }
+        if (queued > 0) {
+            pushedCounter.increment();
+        } else if (!overflowed) {
+            offlineCounter.increment();
+        }
+        return queued;
+    }
+
+    // Keeps idle connections open through proxies; a write to a dead connection fails and unregisters it
+    public void heartbeat() {
+        for (List<PushSession> userSessions : sessions.values()) {
+            for (PushSession session : userSessions) {
+                if (session.isIdle()) {
+                    session.offer(SseEmitter.event().comment("keepalive"));
+                }
+            }
+        }
+    }
+
+    public boolean isConnected(Long userId) {
+        return sessions.containsKey(userId);
+    }
+
+    private void remove(PushSession session) {
+        sessions.computeIfPresent(session.getUserId(), (id, userSessions) -> {
+            userSessions.remove(session);
+            return userSessions.isEmpty() ? null : userSessions;
+        });
+    }
+
+    private static Counter pushCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("notification.push")
+                .description("In-app notifications offered to this node's push connections, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static double countSessions(Map<Long, List<PushSession>> sessions) {
+        return sessions.values().stream().mapToInt(List::size).sum();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.NotificationType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Per-user, per-channel token buckets, kept as GCRA "theoretical arrival times": one long per bucket,
+// advanced with a single CAS, so acquiring never locks. Users live in a size- and idle-bounded map
+// (lock-free reads, striped writes), one AtomicLongArray slot per channel, so memory per tracked user
+// is constant and the number of tracked users is capped.
+@Component
+public class RateLimiter {
+
+    private static final NotificationType[] TYPES = NotificationType.values();
+
+    private final NotificationProperties properties;
+    private final LongSupplier nanoClock;
+    private final Cache<Long, AtomicLongArray> buckets;
+
+    @Autowired
+    public RateLimiter(NotificationProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    RateLimiter(NotificationProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        NotificationProperties.RateLimit config = properties.getRateLimit();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(config.getMaxTrackedUsers())
+                .expireAfterAccess(Duration.ofSeconds(config.getIdleExpirySeconds()))
+                .build();
+    }
+
+    // Takes one token from the user's bucket for this channel; false means the notification is over the limit
+    public boolean tryAcquire(long userId, NotificationType type) {
+        NotificationProperties.Channel channel = properties.getChannels().get(type);
+        int perMinute = channel.getRateLimitPerMinute();
+        if (perMinute <= 0) {
+            return true;
+        }
+        long interval = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        long tolerance = interval * (Math.max(1, channel.getRateLimitBurst()) - 1);
+
+        AtomicLongArray arrivals = buckets.get(userId, id -> newBuckets());
+        int slot = type.ordinal();
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long arrival = arrivals.get(slot);
+            long next = Math.max(arrival, now);
+            if (next - now > tolerance) {
+                return false;
+            }
+            if (arrivals.compareAndSet(slot, arrival, next + interval)) {
+                return true;
+            }
+        }
+    }
+
+    public long trackedUsers() {
+        return buckets.estimatedSize();
+    }
+
+    private static AtomicLongArray newBuckets() {
+        AtomicLongArray arrivals = new AtomicLongArray(TYPES.length);
+        for (int i = 0; i < TYPES.length; i++) {
+            // A fresh bucket is full
+            arrivals.set(i, Long.MIN_VALUE);
+        }
+        return arrivals;
+    }
+}
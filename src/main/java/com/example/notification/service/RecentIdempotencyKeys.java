@@ -0,0 +1,40 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// LRU of recently accepted idempotency keys and the notification each one created. Lets client retry
+// storms be answered without a lookup on the unique index; a miss only means "ask the database".
+@Component
+public class RecentIdempotencyKeys {
+
+    private final Cache<String, Long> keys;
+
+    public RecentIdempotencyKeys(NotificationProperties properties) {
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(properties.getIdempotency().getRecentKeys())
+                .build();
+    }
+
+    public Long find(String key) {
+        return keys.getIfPresent(key);
+    }
+
+    // Deferred to commit so a rolled-back insert is never reported as the original
+    public void remember(String key, Long notificationId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keys.put(key, notificationId);
+                }
+            });
+        } else {
+            keys.put(key, notificationId);
+        }
+    }
+}
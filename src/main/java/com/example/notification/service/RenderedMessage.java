@@ -0,0 +1,5 @@
+package com.example.notification.service;
+
+// Subject and content as the recipient sees them; subject may be null
+public record RenderedMessage(String subject, String content) {
+}
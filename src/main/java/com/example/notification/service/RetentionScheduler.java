@@ -0,0 +1,19 @@
+package com.example.notification.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RetentionScheduler {
+
+    private final RetentionService retentionService;
+
+    public RetentionScheduler(RetentionService retentionService) {
+        this.retentionService = retentionService;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.retention.interval-ms:60000}")
+    public void archiveExpired() {
+        retentionService.archiveExpired();
+    }
+}
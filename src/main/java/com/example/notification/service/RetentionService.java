@@ -0,0 +1,120 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.repository.ArchivedNotificationRepository;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.NotificationRepository.ArchiveCandidate;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Keeps the notifications table to recent and in-flight rows by moving terminal notifications past their
+// retention age to notifications_archive, one chunk per transaction
+@Service
+public class RetentionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetentionService.class);
+
+    // Rows examined by one batch and the keyset position to continue after
+    private record Batch(int examined, long lastId) {
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final ArchivedNotificationRepository archivedRepository;
+    private final UserRepository userRepository;
+    private final NotificationProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+    private final Timer batchTimer;
+
+    public RetentionService(NotificationRepository notificationRepository,
+                            ArchivedNotificationRepository archivedRepository,
+                            UserRepository userRepository,
+                            NotificationProperties properties,
+                            MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager) {
+        this.notificationRepository = notificationRepository;
+        this.archivedRepository = archivedRepository;
+        this.userRepository = userRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder("notification.retention.archived")
+                .description("Notifications moved to the archive table")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("notification.retention.batch")
+                .description("Time to copy and delete one chunk of expired notifications")
+                .register(meterRegistry);
+    }
+
+    public long archiveExpired() {
+        NotificationProperties.Retention retention = properties.getRetention();
+        if (!retention.isEnabled()) {
+            return 0;
+        }
+        return archiveCreatedBefore(LocalDateTime.now().minusDays(retention.getArchiveAfterDays()));
+    }
+
+    long archiveCreatedBefore(LocalDateTime cutoff) {
+        NotificationProperties.Retention retention = properties.getRetention();
+        int batchSize = retention.getBatchSize();
+        long archived = 0;
+        long afterId = 0;
+        for (int i = 0; i < retention.getMaxBatchesPerRun(); i++) {
+            long from = afterId;
+            Batch batch = batchTimer.record(() -> transactionTemplate.execute(status ->
+                    archiveBatch(cutoff, from, batchSize)));
+            if (batch == null || batch.examined() == 0) {
+                break;
+            }
+            archived += batch.examined();
+            afterId = batch.lastId();
+            if (batch.examined() < batchSize) {
+                break;
+            }
+        }
+
+        if (archived > 0) {
+            log.info("Archived {} notifications created before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    // Copy, delete and unread adjustment commit together, so a notification is always in exactly one table.
+    // Rows locked elsewhere, e.g. by another node's run, are skipped until the next run.
+    private Batch archiveBatch(LocalDateTime cutoff, long afterId, int batchSize) {
+        List<ArchiveCandidate> candidates =
+                notificationRepository.findArchivable(cutoff, afterId, PageRequest.of(0, batchSize));
+        if (candidates.isEmpty()) {
+            return new Batch(0, afterId);
+        }
+
+        List<Long> ids = new ArrayList<>(candidates.size());
+        for (ArchiveCandidate candidate : candidates) {
+            ids.add(candidate.getId());
+        }
+        archivedRepository.archive(ids, LocalDateTime.now());
+        notificationRepository.deleteByIds(ids);
+        // Archived notifications no longer count as unread
+        List<Long> unreadUserIds = new ArrayList<>();
+        for (ArchiveCandidate candidate : candidates) {
+            if (!candidate.isRead()) {
+                unreadUserIds.add(candidate.getUserId());
+            }
+        }
+        UnreadCounts.decrement(userRepository, unreadUserIds);
+
+        archivedCounter.increment(ids.size());
+        return new Batch(ids.size(), ids.get(ids.size() - 1));
+    }
+}
@@ -16,10 +16,10 @@ public class RetryScheduler {
         this.notificationService = notificationService;
     }
 
-    // Run every 5 minutes
-    @Scheduled(fixedRate = 300000)
+    // Each failed notification carries its own next attempt time; this only releases the ones that are due
+    @Scheduled(fixedDelayString = "${notification.retry.poll-interval-ms:1000}")
     public void retryFailedNotifications() {
-        log.info("Scheduled task: Retrying failed notifications");
+        log.debug("Scheduled task: Retrying failed notifications");
         notificationService.retryFailedNotifications();
     }
 }
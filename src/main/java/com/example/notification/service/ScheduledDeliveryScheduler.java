@@ -0,0 +1,30 @@
+package com.example.notification.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ScheduledDeliveryScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledDeliveryScheduler.class);
+
+    private final ScheduledDeliveryService scheduledDeliveryService;
+
+    public ScheduledDeliveryScheduler(ScheduledDeliveryService scheduledDeliveryService) {
+        this.scheduledDeliveryService = scheduledDeliveryService;
+    }
+
+    // Cheap when nothing is due: advancing the wheel touches one bucket per tick and no database query is made
+    @Scheduled(fixedDelayString = "${notification.scheduling.tick-ms:100}")
+    public void releaseDue() {
+        scheduledDeliveryService.releaseDue();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.scheduling.load-interval-ms:10000}")
+    public void loadHorizon() {
+        log.debug("Scheduled task: Loading scheduled notifications coming due");
+        scheduledDeliveryService.loadHorizon();
+    }
+}
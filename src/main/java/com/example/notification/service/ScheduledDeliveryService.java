@@ -0,0 +1,242 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationPriority;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Holds SCHEDULED notifications until they are due. Those due within the next horizonSeconds sit in an
+// in-memory timing wheel; later ones stay in the database and are read off the (status, scheduled_at) index
+// as the horizon moves forward. Due notifications are released to the outbox at a bounded rate.
+@Service
+public class ScheduledDeliveryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledDeliveryService.class);
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final RateLimiter rateLimiter;
+    private final OutboxService outboxService;
+    private final NotificationProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    // Guarded by this
+    private final TimingWheel wheel;
+    private final ArrayDeque<Long> ready = new ArrayDeque<>();
+    private NotificationRepository.ScheduledSlot cursor;
+
+    // Due times up to here are covered by the wheel loads; rows created later for an earlier time are added
+    // to the wheel directly. Null until the first load.
+    private volatile LocalDateTime loadedUntil;
+
+    @Autowired
+    public ScheduledDeliveryService(NotificationRepository notificationRepository,
+                                    UserRepository userRepository,
+                                    RateLimiter rateLimiter,
+                                    OutboxService outboxService,
+                                    NotificationProperties properties,
+                                    PlatformTransactionManager transactionManager) {
+        this(notificationRepository, userRepository, rateLimiter, outboxService, properties, transactionManager,
+                Clock.systemDefaultZone());
+    }
+
+    ScheduledDeliveryService(NotificationRepository notificationRepository,
+                             UserRepository userRepository,
+                             RateLimiter rateLimiter,
+                             OutboxService outboxService,
+                             NotificationProperties properties,
+                             PlatformTransactionManager transactionManager,
+                             Clock clock) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.rateLimiter = rateLimiter;
+        this.outboxService = outboxService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+
+        NotificationProperties.Scheduling scheduling = properties.getScheduling();
+        // Enough levels that the wheel spans at least twice the horizon plus one load interval
+        long span = 2 * (scheduling.getHorizonSeconds() * 1000 + scheduling.getLoadIntervalMs());
+        int levels = 1;
+        for (long levelSpan = scheduling.getTickMs() * scheduling.getWheelSize(); levelSpan < span;
+             levelSpan *= scheduling.getWheelSize()) {
+            levels++;
+        }
+        this.wheel = new TimingWheel(scheduling.getTickMs(), scheduling.getWheelSize(), levels, clock.millis());
+    }
+
+    // Called for rows saved as SCHEDULED. The wheel loads already covered their time, so they would otherwise
+    // only be picked up by the overdue sweep. Deferred to commit so a rolled-back row is never released.
+    public void track(Collection<Notification> notifications) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToWheel(notifications);
+                }
+            });
+        } else {
+            addToWheel(notifications);
+        }
+    }
+
+    // Loads the next part of the horizon from the database and queues rows left behind past the grace period
+    public void loadHorizon() {
+        NotificationProperties.Scheduling scheduling = properties.getScheduling();
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.plusSeconds(scheduling.getHorizonSeconds());
+        // Published before the query: a row committed after this point is either seen by the query or tracked
+        loadedUntil = until;
+
+        PageRequest page = PageRequest.of(0, scheduling.getLoadBatchSize());
+        int loaded = 0;
+        boolean full = false;
+        List<NotificationRepository.ScheduledSlot> slots;
+        do {
+            NotificationRepository.ScheduledSlot after = currentCursor();
+            slots = after == null
+                    ? notificationRepository.findScheduledUntil(until, page)
+                    : notificationRepository.findScheduledAfter(until, after.getScheduledAt(), after.getId(), page);
+            synchronized (this) {
+                for (NotificationRepository.ScheduledSlot slot : slots) {
+                    if (wheel.size() + ready.size() >= scheduling.getMaxInMemory()
+                            || !wheel.add(slot.getId(), toMillis(slot.getScheduledAt()), ready::add)) {
+                        full = true;
+                        break;
+                    }
+                    cursor = slot;
+                    loaded++;
+                }
+            }
+        } while (!full && slots.size() == scheduling.getLoadBatchSize());
+
+        NotificationRepository.ScheduledSlot last = currentCursor();
+        if (full && last != null) {
+            // The rest of the horizon is read by a later load
+            loadedUntil = last.getScheduledAt();
+        }
+        if (loaded > 0) {
+            log.info("Loaded {} scheduled notifications due by {}", loaded, loadedUntil);
+        }
+
+        // Only once everything due has been attempted, so rows still waiting for release are not queued twice
+        if (readyCount() == 0) {
+            LocalDateTime overdue = now.minusSeconds(scheduling.getOverdueGraceSeconds());
+            List<NotificationRepository.ScheduledSlot> stale = notificationRepository.findScheduledUntil(overdue, page);
+            if (!stale.isEmpty()) {
+                log.warn("Releasing {} scheduled notifications overdue by more than {}s",
+                        stale.size(), scheduling.getOverdueGraceSeconds());
+                synchronized (this) {
+                    for (NotificationRepository.ScheduledSlot slot : stale) {
+                        ready.add(slot.getId());
+                    }
+                }
+            }
+        }
+    }
+
+    // Releases due notifications to the outbox, at most maxReleasePerSecond spread over the ticks
+    public int releaseDue() {
+        NotificationProperties.Scheduling scheduling = properties.getScheduling();
+        int budget = (int) Math.max(1, scheduling.getMaxReleasePerSecond() * scheduling.getTickMs() / 1000);
+        List<Long> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(clock.millis(), ready::add);
+            while (due.size() < budget && !ready.isEmpty()) {
+                due.add(ready.poll());
+            }
+        }
+
+        int released = 0;
+        for (int from = 0; from < due.size(); from += scheduling.getReleaseBatchSize()) {
+            List<Long> ids = due.subList(from, Math.min(due.size(), from + scheduling.getReleaseBatchSize()));
+            try {
+                Integer count = transactionTemplate.execute(status -> releaseBatch(ids));
+                released += count == null ? 0 : count;
+            } catch (Exception e) {
+                // Left SCHEDULED; the overdue sweep picks them up again
+                log.error("Failed to release {} scheduled notifications: {}", ids.size(), e.getMessage(), e);
+            }
+        }
+        if (released > 0) {
+            log.info("Released {} scheduled notifications", released);
+        }
+        return released;
+    }
+
+    synchronized int readyCount() {
+        return ready.size();
+    }
+
+    synchronized int inWheel() {
+        return wheel.size();
+    }
+
+    // Rows already released by another node, or locked by one doing so right now, are not returned
+    private int releaseBatch(List<Long> ids) {
+        List<Notification> notifications = notificationRepository.findScheduledForRelease(ids);
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+
+        List<Notification> deliverable = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            // Rate limits apply when the notification goes out, not when it was scheduled
+            boolean allowed = notification.getPriority() == NotificationPriority.HIGH
+                    || rateLimiter.tryAcquire(notification.getUser().getId(), notification.getType());
+            notification.setStatus(allowed ? NotificationStatus.PENDING : NotificationStatus.COALESCED);
+            notification.setRead(false);
+            if (allowed) {
+                deliverable.add(notification);
+            }
+        }
+
+        // Scheduled rows enter the inbox and the unread count only now
+        UnreadCounts.increment(userRepository, notifications.stream().map(n -> n.getUser().getId()).toList());
+
+        outboxService.enqueueAll(deliverable);
+        return notifications.size();
+    }
+
+    private void addToWheel(Collection<Notification> notifications) {
+        LocalDateTime covered = loadedUntil;
+        if (covered == null) {
+            return;
+        }
+        synchronized (this) {
+            for (Notification notification : notifications) {
+                if (!notification.getScheduledAt().isAfter(covered)) {
+                    wheel.add(notification.getId(), toMillis(notification.getScheduledAt()), ready::add);
+                }
+            }
+        }
+    }
+
+    private synchronized NotificationRepository.ScheduledSlot currentCursor() {
+        return cursor;
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
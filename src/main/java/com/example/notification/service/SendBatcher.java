@@ -0,0 +1,108 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Collects individual sends into provider batches of up to maxBatchSize items, waiting at most
+// maxDelayMs after the first item, and completes each caller's future from the per-item results.
+public class SendBatcher implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SendBatcher.class);
+
+    private record Pending(Notification notification, CompletableFuture<DeliveryResult> result) {
+    }
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long maxDelayMs;
+    private final Function<List<Notification>, List<DeliveryResult>> batchSender;
+    private final Executor executor;
+    private final ScheduledExecutorService timer;
+
+    private final Object lock = new Object();
+    private List<Pending> buffer = new ArrayList<>();
+
+    public SendBatcher(String name, int maxBatchSize, long maxDelayMs,
+                       Function<List<Notification>, List<DeliveryResult>> batchSender, Executor executor) {
+        this.name = name;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxDelayMs = maxDelayMs;
+        this.batchSender = batchSender;
+        this.executor = executor;
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name(name + "-batcher").daemon().factory());
+    }
+
+    public CompletableFuture<DeliveryResult> submit(Notification notification) {
+        CompletableFuture<DeliveryResult> result = new CompletableFuture<>();
+        List<Pending> full = null;
+        boolean first;
+
+        synchronized (lock) {
+            buffer.add(new Pending(notification, result));
+            first = buffer.size() == 1;
+            if (buffer.size() >= maxBatchSize) {
+                full = buffer;
+                buffer = new ArrayList<>(maxBatchSize);
+            }
+        }
+
+        if (full != null) {
+            dispatch(full);
+        } else if (first) {
+            timer.schedule(this::flush, maxDelayMs, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    public void flush() {
+        List<Pending> batch;
+        synchronized (lock) {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            batch = buffer;
+            buffer = new ArrayList<>(maxBatchSize);
+        }
+        dispatch(batch);
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        flush();
+    }
+
+    private void dispatch(List<Pending> batch) {
+        executor.execute(() -> {
+            List<Notification> notifications = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                notifications.add(pending.notification());
+            }
+
+            try {
+                List<DeliveryResult> results = batchSender.apply(notifications);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result().complete(i < results.size()
+                            ? results.get(i)
+                            : DeliveryResult.transientFailure("No result returned by provider"));
+                }
+            } catch (Exception e) {
+                log.error("Error sending {} batch of {}: {}", name, batch.size(), e.getMessage(), e);
+                for (Pending pending : batch) {
+                    pending.result().complete(DeliveryResult.transientFailure(e.getMessage()));
+                }
+            }
+        });
+    }
+}
@@ -1,36 +1,37 @@
 package com.example.notification.service;
 
+import com.example.notification.config.NotificationProperties;
 import com.example.notification.model.Notification;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.example.notification.model.NotificationType;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-@Service
-public class SmsService {
-
-    private static final Logger log = LoggerFactory.getLogger(SmsService.class);
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
-    public boolean sendSms(Notification notification) {
-        try {
-            // In a real application, this would use an SMS API provider
-            // like Twilio or AWS SNS
-            log.info("Sending SMS to {}: {}",
-                    notification.getUser().getPhoneNumber(),
-                    notification.getContent());
+@Service
+public class SmsService extends BatchingChannelSender {
 
-            // Simulate SMS sending with random success/failure
-            boolean success = Math.random() > 0.2; // 80% success rate
+    public SmsService(@Qualifier("channelSenderExecutor") ExecutorService executor,
+                      TemplateService templateService,
+                      NotificationProperties properties) {
+        // In a real application, this would use an SMS API provider
+        // like Twilio or AWS SNS with its bulk submission endpoint
+        super("sms", "SMS",
+                new StubProvider(properties.getChannels().getSms().getProviderLatencyMs(), 0.8), // 80% success rate
+                properties.getChannels().getSms(), executor, templateService);
+    }
 
-            if (success) {
-                log.info("SMS sent successfully");
-            } else {
-                log.error("Failed to send SMS");
-            }
+    @Override
+    public NotificationType type() {
+        return NotificationType.SMS;
+    }
 
-            return success;
-        } catch (Exception e) {
-            log.error("Error sending SMS: {}", e.getMessage(), e);
-            return false;
+    @Override
+    public CompletableFuture<DeliveryResult> send(Notification notification) {
+        if (notification.getUser() == null || notification.getUser().getPhoneNumber() == null) {
+            return CompletableFuture.completedFuture(DeliveryResult.permanentFailure("User has no phone number"));
         }
+        return submit(notification);
     }
 }
@@ -0,0 +1,46 @@
+package com.example.notification.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stand-in for a real email/SMS gateway. Every call costs a fixed round-trip latency no matter how
+// many recipients it carries, and each item succeeds independently with the given probability.
+public class StubProvider {
+
+    private final long latencyMs;
+    private final double successRate;
+    private final AtomicLong calls = new AtomicLong();
+
+    public StubProvider(long latencyMs, double successRate) {
+        this.latencyMs = latencyMs;
+        this.successRate = successRate;
+    }
+
+    // Only the number of messages matters here; a real provider would send their rendered text
+    public List<DeliveryResult> sendBatch(List<?> messages) {
+        calls.incrementAndGet();
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for provider", e);
+            }
+        }
+
+        List<DeliveryResult> results = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            results.add(ThreadLocalRandom.current().nextDouble() < successRate
+                    ? DeliveryResult.delivered()
+                    : DeliveryResult.transientFailure("Provider rejected the message"));
+        }
+        return results;
+    }
+
+    // Number of round-trips made so far
+    public long calls() {
+        return calls.get();
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.dto.InboxItem;
+import com.example.notification.dto.TemplateRequest;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationTemplate;
+import com.example.notification.repository.NotificationTemplateRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// Registered templates, compiled on first use and cached. Notifications that reference one are stored with
+// their variables only and rendered where the text is needed: by the channel sender just before the provider
+// call, by the in-app push and by inbox reads.
+@Service
+public class TemplateService {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateService.class);
+
+    private static final Pattern TEMPLATE_ID = Pattern.compile("[A-Za-z0-9_.-]{1,64}");
+
+    private record Compiled(CompiledTemplate subject, CompiledTemplate content) {
+    }
+
+    private final NotificationTemplateRepository templateRepository;
+    private final NotificationProperties properties;
+    // Templates are immutable, so a loaded entry stays valid until evicted. Unknown IDs are not cached.
+    private final Cache<String, Compiled> cache;
+
+    public TemplateService(NotificationTemplateRepository templateRepository,
+                           NotificationProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.templateRepository = templateRepository;
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getTemplates().getCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "templates");
+    }
+
+    // Registering the same text again is a no-op; different text under an existing ID is rejected
+    @Transactional
+    public NotificationTemplate register(TemplateRequest request) {
+        if (request.getId() == null || !TEMPLATE_ID.matcher(request.getId()).matches()) {
+            throw new IllegalArgumentException("Template ID must be 1-64 letters, digits, '.', '_' or '-'");
+        }
+        if (request.getContent() == null || request.getContent().isBlank()) {
+            throw new IllegalArgumentException("Content cannot be empty");
+        }
+        // Fails on a malformed placeholder before anything is stored
+        CompiledTemplate.compile(request.getSubject());
+        CompiledTemplate.compile(request.getContent());
+
+        Optional<NotificationTemplate> existing = templateRepository.findById(request.getId());
+        if (existing.isPresent()) {
+            NotificationTemplate template = existing.get();
+            if (Objects.equals(template.getSubject(), request.getSubject())
+                    && template.getContent().equals(request.getContent())) {
+                return template;
+            }
+            throw new IllegalArgumentException("Template " + request.getId()
+                    + " already exists; register changed text under a new ID");
+        }
+
+        NotificationTemplate template = templateRepository.save(NotificationTemplate.builder()
+                .id(request.getId())
+                .subject(request.getSubject())
+                .content(request.getContent())
+                .build());
+        log.info("Registered template {}", template.getId());
+        return template;
+    }
+
+    @Transactional(readOnly = true)
+    public NotificationTemplate getTemplate(String id) {
+        return templateRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Template not found with ID: " + id));
+    }
+
+    // Null if a notification can be created from this template and variables, otherwise the reason it cannot
+    public String validate(String templateId, Map<String, String> variables) {
+        if (variables != null && variables.size() > properties.getTemplates().getMaxVariables()) {
+            return "At most " + properties.getTemplates().getMaxVariables() + " template variables are allowed";
+        }
+        Compiled compiled = cache.get(templateId, this::load);
+        if (compiled == null) {
+            return "Template not found with ID: " + templateId;
+        }
+        String missing = missingVariable(compiled.subject(), variables);
+        if (missing == null) {
+            missing = missingVariable(compiled.content(), variables);
+        }
+        return missing == null ? null : "Missing template variable: " + missing;
+    }
+
+    // Notifications without a template already hold their text and are returned as they are
+    public RenderedMessage render(Notification notification) {
+        if (notification.getTemplateId() == null) {
+            return new RenderedMessage(notification.getSubject(), notification.getContent());
+        }
+        Compiled compiled = compiled(notification.getTemplateId());
+        Map<String, String> variables = notification.getTemplateVariables();
+        return new RenderedMessage(render(compiled.subject(), variables), compiled.content().render(variables));
+    }
+
+    // Inbox rows are selected with their template reference; fills in the text in place
+    public void render(InboxItem item) {
+        if (item.getTemplateId() == null) {
+            return;
+        }
+        Compiled compiled = compiled(item.getTemplateId());
+        item.setSubject(render(compiled.subject(), item.getTemplateVariables()));
+        item.setContent(compiled.content().render(item.getTemplateVariables()));
+    }
+
+    // Templates are never deleted, so a reference stored with a notification always resolves
+    private Compiled compiled(String templateId) {
+        Compiled compiled = cache.get(templateId, this::load);
+        if (compiled == null) {
+            throw new IllegalStateException("Template not found with ID: " + templateId);
+        }
+        return compiled;
+    }
+
+    private Compiled load(String templateId) {
+        return templateRepository.findById(templateId)
+                .map(template -> new Compiled(CompiledTemplate.compile(template.getSubject()),
+                        CompiledTemplate.compile(template.getContent())))
+                .orElse(null);
+    }
+
+    private static String render(CompiledTemplate template, Map<String, String> variables) {
+        return template == null ? null : template.render(variables);
+    }
+
+    private static String missingVariable(CompiledTemplate template, Map<String, String> variables) {
+        if (template == null) {
+            return null;
+        }
+        for (String name : template.variables()) {
+            if (variables == null || variables.get(name) == null) {
+                return name;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.notification.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+// Hierarchical timing wheel of notification IDs keyed by due time in epoch milliseconds. Level 0 has wheelSize
+// buckets of tickMs each; every further level has wheelSize buckets as wide as the whole level below, and its
+// bucket is cascaded down when time reaches it. Adding and expiring are O(1) per entry, whatever the spread of
+// due times. Entries expire at the start of their tick, so up to tickMs early. Not thread-safe; callers synchronize.
+public class TimingWheel {
+
+    private record Entry(long id, long dueMs) {
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTickMs;
+    private final List<Entry>[][] buckets;
+    private long currentMs;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs < 1 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTickMs = new long[levels];
+        this.buckets = new List[levels][wheelSize];
+        long levelTick = tickMs;
+        for (int level = 0; level < levels; level++) {
+            levelTickMs[level] = levelTick;
+            levelTick = Math.multiplyExact(levelTick, wheelSize);
+        }
+        this.currentMs = Math.floorDiv(startMs, tickMs) * tickMs;
+    }
+
+    // Latest due time the wheel can hold right now; later entries are rejected
+    public long horizonMs() {
+        int top = levelTickMs.length - 1;
+        return (Math.floorDiv(currentMs, levelTickMs[top]) + wheelSize) * levelTickMs[top] - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Returns false if dueMs is beyond the horizon. Entries already due are handed to expired straight away.
+    public boolean add(long id, long dueMs, LongConsumer expired) {
+        if (Math.floorDiv(dueMs, tickMs) <= Math.floorDiv(currentMs, tickMs)) {
+            expired.accept(id);
+            return true;
+        }
+        // Lowest level whose window covers dueMs; not fitting level L - 1 guarantees a later slot on level L
+        for (int level = 0; level < levelTickMs.length; level++) {
+            long slot = Math.floorDiv(dueMs, levelTickMs[level]);
+            if (slot <= Math.floorDiv(currentMs, levelTickMs[level]) + wheelSize - 1) {
+                int index = (int) Math.floorMod(slot, (long) wheelSize);
+                List<Entry> bucket = buckets[level][index];
+                if (bucket == null) {
+                    bucket = new ArrayList<>();
+                    buckets[level][index] = bucket;
+                }
+                bucket.add(new Entry(id, dueMs));
+                size++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Moves time forward one tick at a time up to nowMs, handing every entry that became due to expired
+    public void advance(long nowMs, LongConsumer expired) {
+        while (currentMs + tickMs <= nowMs) {
+            currentMs += tickMs;
+            // Higher levels first, so entries cascaded into the current bucket of a lower level are handled this tick
+            for (int level = levelTickMs.length - 1; level >= 1; level--) {
+                if (currentMs % levelTickMs[level] == 0) {
+                    List<Entry> cascaded = take(level, currentMs);
+                    if (cascaded != null) {
+                        for (Entry entry : cascaded) {
+                            add(entry.id(), entry.dueMs(), expired);
+                        }
+                    }
+                }
+            }
+            List<Entry> due = take(0, currentMs);
+            if (due != null) {
+                for (Entry entry : due) {
+                    expired.accept(entry.id());
+                }
+            }
+        }
+    }
+
+    private List<Entry> take(int level, long timeMs) {
+        int index = (int) Math.floorMod(Math.floorDiv(timeMs, levelTickMs[level]), (long) wheelSize);
+        List<Entry> bucket = buckets[level][index];
+        if (bucket != null) {
+            buckets[level][index] = null;
+            size -= bucket.size();
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.notification.service;
+
+import com.example.notification.repository.UserRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Applies unread counter changes for many notifications at once. Users whose count changes by the same amount
+// share one UPDATE, so the usual case of one notification per user costs a single statement.
+final class UnreadCounts {
+
+    private UnreadCounts() {
+    }
+
+    // One user ID per notification entering the unread count
+    static void increment(UserRepository userRepository, Collection<Long> userIds) {
+        adjust(userRepository, userIds, 1);
+    }
+
+    // One user ID per unread notification leaving the unread count
+    static void decrement(UserRepository userRepository, Collection<Long> userIds) {
+        adjust(userRepository, userIds, -1);
+    }
+
+    private static void adjust(UserRepository userRepository, Collection<Long> userIds, long sign) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> perUser = userIds.stream()
+                .collect(Collectors.groupingBy(userId -> userId, Collectors.counting()));
+        Map<Long, List<Long>> usersByCount = perUser.entrySet().stream()
+                .collect(Collectors.groupingBy(Map.Entry::getValue,
+                        Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        usersByCount.forEach((count, ids) -> userRepository.adjustUnreadCount(ids, sign * count));
+    }
+}
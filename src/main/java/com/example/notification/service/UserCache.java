@@ -0,0 +1,58 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.User;
+import com.example.notification.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Bounded near-cache in front of UserRepository for the ingest and dispatch paths. Cached users are
+// detached snapshots: read their contact details and preferences, never modify or persist them.
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, User> cache;
+
+    public UserCache(UserRepository userRepository, NotificationProperties properties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        NotificationProperties.UserCache config = properties.getUserCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.getTtlSeconds()))
+                .recordStats()
+                .build();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=users
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<User> get(Long userId) {
+        return Optional.ofNullable(cache.get(userId, id -> userRepository.findById(id).orElse(null)));
+    }
+
+    // Misses are loaded together in one query; users that do not exist are absent from the result
+    public Map<Long, User> getAll(Collection<Long> userIds) {
+        return cache.getAll(userIds, missing -> userRepository.findAllById(new ArrayList<>(missing)).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity())));
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
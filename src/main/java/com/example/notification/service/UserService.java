@@ -0,0 +1,54 @@
+package com.example.notification.service;
+
+import com.example.notification.dto.UserPreferencesRequest;
+import com.example.notification.model.User;
+import com.example.notification.repository.UserRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class UserService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+
+    public UserService(UserRepository userRepository, UserCache userCache) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+    }
+
+    @Transactional
+    public User updatePreferences(Long userId, UserPreferencesRequest request) {
+        log.info("Updating notification preferences for user: {}", userId);
+
+        // Always read through the repository here; cached users are detached snapshots
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + userId));
+
+        if (request.getEmailEnabled() != null) {
+            user.setEmailEnabled(request.getEmailEnabled());
+        }
+        if (request.getSmsEnabled() != null) {
+            user.setSmsEnabled(request.getSmsEnabled());
+        }
+        if (request.getInAppEnabled() != null) {
+            user.setInAppEnabled(request.getInAppEnabled());
+        }
+
+        // Evict only once the change is visible, so a concurrent miss cannot reload the old row
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userCache.invalidate(userId);
+            }
+        });
+        return user;
+    }
+}
@@ -0,0 +1,25 @@
+-- Add the archive table that retention moves delivered, failed, suppressed and digested notifications to once they are
+-- older than notification.retention.archive-after-days.
+--
+-- Run once, before the new version starts. The first retention runs work off the existing backlog in bounded chunks.
+-- Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    id                 BIGINT PRIMARY KEY,
+    user_id            BIGINT,
+    type               VARCHAR(16),
+    priority           VARCHAR(16),
+    status             VARCHAR(16),
+    subject            TEXT,
+    content            VARCHAR(255),
+    template_id        VARCHAR(64),
+    template_variables JSONB,
+    read               BOOLEAN      NOT NULL DEFAULT FALSE,
+    retry_count        INTEGER      NOT NULL DEFAULT 0,
+    created_at         TIMESTAMP,
+    sent_at            TIMESTAMP,
+    archived_at        TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_notifications_archive_user_created
+    ON notifications_archive (user_id, created_at DESC, id);
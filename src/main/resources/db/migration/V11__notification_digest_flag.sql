@@ -0,0 +1,8 @@
+-- Flag digest notifications so the inbox lists the DIGESTED originals they summarize only once.
+--
+-- Run once, before the new version starts. Digests sent by earlier versions keep the default and stay in the inbox.
+-- Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS digest BOOLEAN NOT NULL DEFAULT FALSE;
+
+ALTER TABLE notifications_archive ADD COLUMN IF NOT EXISTS digest BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,11 @@
+-- Add the per-notification retry due time read by the retry sweep.
+--
+-- Run once, before the new version starts. RETRY rows written by earlier versions have no due time yet and are made
+-- due immediately, as the old fixed-interval sweep would have picked them up on its next run.
+-- Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS next_retry_at TIMESTAMP;
+
+UPDATE notifications SET next_retry_at = now() WHERE status = 'RETRY' AND next_retry_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_notifications_status_next_retry ON notifications (status, next_retry_at);
@@ -0,0 +1,6 @@
+-- Add the index that keyset-paginated inbox reads walk newest first, so a page does not sort the user's whole history.
+--
+-- Run once, before the new version starts. Building it on a large notifications table takes a while and blocks writes
+-- to the table until it is done. Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created ON notifications (user_id, created_at DESC, id);
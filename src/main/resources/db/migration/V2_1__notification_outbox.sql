@@ -0,0 +1,19 @@
+-- Add the transactional outbox: notification rows and their publish events are written in one transaction, and
+-- OutboxRelay publishes the events to RabbitMQ afterwards.
+--
+-- Run once, before the new version starts, and before V7, which adds trace_parent to this table.
+-- The version sorts between V2 and V3 because the outbox was introduced right after the pooled sequences.
+-- Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+CREATE SEQUENCE IF NOT EXISTS outbox_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id              BIGINT PRIMARY KEY,
+    notification_id BIGINT       NOT NULL,
+    exchange        VARCHAR(255) NOT NULL,
+    routing_key     VARCHAR(255) NOT NULL,
+    created_at      TIMESTAMP,
+    published_at    TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_published_at ON notification_outbox (published_at, id);
@@ -0,0 +1,17 @@
+-- Move users and notifications from IDENTITY columns to pooled sequences.
+--
+-- Run once, before the new version starts, against a database that already holds rows.
+-- Hibernate's pooled optimizer treats each sequence value as the upper end of a block of
+-- 50 IDs (allocationSize), so the sequences are positioned one full block past MAX(id).
+-- Syntax is PostgreSQL. The in-memory H2 database used for development starts empty
+-- and does not need this script.
+
+CREATE SEQUENCE IF NOT EXISTS user_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS notification_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('user_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+SELECT setval('notification_seq', COALESCE((SELECT MAX(id) FROM notifications), 0) + 50, false);
+
+-- The old IDENTITY defaults are no longer used by the application and can be dropped
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE notifications ALTER COLUMN id DROP IDENTITY IF EXISTS;
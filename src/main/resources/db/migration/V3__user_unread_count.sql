@@ -0,0 +1,10 @@
+-- Add the per-user unread counter served by GET /api/users/{userId}/notifications/unread-count.
+--
+-- Run once, before the new version starts. The application only ever adjusts the counter
+-- incrementally, so existing rows must be seeded from the current notifications.
+-- Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS unread_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE users u
+SET unread_count = (SELECT COUNT(*) FROM notifications n WHERE n.user_id = u.id AND n.read = false);
@@ -0,0 +1,8 @@
+-- Add the optional client idempotency key to notifications.
+--
+-- Run once, before the new version starts. Existing rows have no key; NULLs do not collide
+-- under the unique index. Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS idempotency_key VARCHAR(128);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_notifications_idempotency_key ON notifications (idempotency_key);
@@ -0,0 +1,8 @@
+-- Add the delivery priority to notifications.
+--
+-- Run once, before the new version starts. Existing rows are backfilled as NORMAL, which is what
+-- they were routed as. Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS priority VARCHAR(16);
+
+UPDATE notifications SET priority = 'NORMAL' WHERE priority IS NULL;
@@ -0,0 +1,10 @@
+-- Add scheduled delivery to notifications.
+--
+-- Run once, before the new version starts. Existing rows are not scheduled and keep a NULL
+-- scheduled_at. Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS scheduled_at TIMESTAMP;
+
+-- Serves the range scans that load scheduled rows coming due
+CREATE INDEX IF NOT EXISTS idx_notifications_status_scheduled
+    ON notifications (status, scheduled_at, id);
@@ -0,0 +1,9 @@
+-- Store the W3C traceparent of the creating request with notifications and outbox events, so deliveries,
+-- retries and scheduled releases continue the original trace.
+--
+-- Run once, before the new version starts. Existing rows stay NULL and are delivered under a new trace.
+-- Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS trace_parent VARCHAR(55);
+
+ALTER TABLE notification_outbox ADD COLUMN IF NOT EXISTS trace_parent VARCHAR(55);
@@ -0,0 +1,16 @@
+-- Add registered templates, and let notifications reference one by ID with their own variables instead of
+-- storing fully rendered subject and content.
+--
+-- Run once, before the new version starts. Existing rows keep their rendered text and no template.
+-- Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+CREATE TABLE IF NOT EXISTS notification_templates (
+    id         VARCHAR(64) PRIMARY KEY,
+    subject    TEXT,
+    content    TEXT      NOT NULL,
+    created_at TIMESTAMP
+);
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS template_id VARCHAR(64);
+
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS template_variables JSONB;
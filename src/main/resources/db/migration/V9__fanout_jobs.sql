@@ -0,0 +1,38 @@
+-- Add fan-out jobs, which send one notification to every user in a segment and checkpoint their progress.
+--
+-- Run once, before the new version starts. Syntax is PostgreSQL; the in-memory H2 development database starts empty.
+
+CREATE SEQUENCE IF NOT EXISTS fanout_job_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS fanout_jobs (
+    id                 BIGINT PRIMARY KEY,
+    segment            VARCHAR(16)  NOT NULL,
+    user_ids           JSONB,
+    email_enabled      BOOLEAN,
+    sms_enabled        BOOLEAN,
+    in_app_enabled     BOOLEAN,
+    type               VARCHAR(16)  NOT NULL,
+    priority           VARCHAR(16),
+    subject            TEXT,
+    content            TEXT,
+    template_id        VARCHAR(64),
+    template_variables JSONB,
+    scheduled_at       TIMESTAMP,
+    status             VARCHAR(16)  NOT NULL,
+    total_users        BIGINT       NOT NULL DEFAULT 0,
+    last_user_id       BIGINT       NOT NULL DEFAULT 0,
+    processed          BIGINT       NOT NULL DEFAULT 0,
+    created            BIGINT       NOT NULL DEFAULT 0,
+    suppressed         BIGINT       NOT NULL DEFAULT 0,
+    coalesced          BIGINT       NOT NULL DEFAULT 0,
+    duplicates         BIGINT       NOT NULL DEFAULT 0,
+    rejected           BIGINT       NOT NULL DEFAULT 0,
+    attempts           INTEGER      NOT NULL DEFAULT 0,
+    lease_until        TIMESTAMP,
+    error              VARCHAR(512),
+    created_at         TIMESTAMP,
+    started_at         TIMESTAMP,
+    completed_at       TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_fanout_jobs_status_lease ON fanout_jobs (status, lease_until);
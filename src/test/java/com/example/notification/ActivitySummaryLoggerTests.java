@@ -0,0 +1,44 @@
+package com.example.notification.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ActivitySummaryLoggerTests {
+
+	@Test
+	void testSummaryReportsCountsSincePreviousSummary() {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		ActivitySummaryLogger summaryLogger = new ActivitySummaryLogger(meterRegistry);
+		Counter emailDelivered = delivery(meterRegistry, "EMAIL", "DELIVERED");
+		Counter smsDelivered = delivery(meterRegistry, "SMS", "DELIVERED");
+		Counter smsFailed = delivery(meterRegistry, "SMS", "TRANSIENT_FAILURE");
+		Counter requeued = meterRegistry.counter("notification.retry.requeued");
+
+		emailDelivered.increment(5);
+		smsDelivered.increment(3);
+		smsFailed.increment(2);
+		requeued.increment(2);
+		String summary = summaryLogger.summarize();
+		assertTrue(summary.contains("deliveries {DELIVERED=8, TRANSIENT_FAILURE=2}"), summary);
+		assertTrue(summary.contains("requeued for retry 2"), summary);
+
+		// Nothing new since the last summary
+		assertNull(summaryLogger.summarize());
+
+		smsFailed.increment();
+		summary = summaryLogger.summarize();
+		assertTrue(summary.contains("deliveries {TRANSIENT_FAILURE=1}"), summary);
+		assertTrue(summary.contains("requeued for retry 0"), summary);
+	}
+
+	private static Counter delivery(SimpleMeterRegistry meterRegistry, String channel, String outcome) {
+		return meterRegistry.counter("notification.delivery", "channel", channel, "outcome", outcome);
+	}
+}
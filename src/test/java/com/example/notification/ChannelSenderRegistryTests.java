@@ -0,0 +1,118 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationPriority;
+import com.example.notification.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ChannelSenderRegistryTests {
+
+	@Mock
+	private ChannelSender smsSender;
+
+	private final AtomicLong clock = new AtomicLong();
+
+	private SimpleMeterRegistry meterRegistry;
+	private ChannelSenderRegistry registry;
+
+	private Notification notification;
+
+	@BeforeEach
+	void setUp() {
+		NotificationProperties properties = new NotificationProperties();
+		properties.getChannels().getSms().setMaxInFlight(1);
+		properties.getChannels().getSms().setSendTimeoutMs(50);
+		NotificationProperties.Breaker breaker = properties.getChannels().getSms().getCircuitBreaker();
+		breaker.setSlidingWindowSize(4);
+		breaker.setMinimumCalls(4);
+		breaker.setHalfOpenProbes(1);
+
+		when(smsSender.type()).thenReturn(NotificationType.SMS);
+		meterRegistry = new SimpleMeterRegistry();
+		registry = new ChannelSenderRegistry(List.of(smsSender), properties, meterRegistry, clock::get);
+
+		notification = Notification.builder().id(1L).type(NotificationType.SMS).build();
+	}
+
+	@Test
+	void testSendTimeoutIsReportedAsTransientFailure() {
+		when(smsSender.send(any(Notification.class))).thenReturn(new CompletableFuture<>());
+
+		DeliveryResult result = registry.send(notification).join();
+
+		assertEquals(DeliveryResult.Outcome.TRANSIENT_FAILURE, result.outcome());
+	}
+
+	@Test
+	void testPermitIsReleasedWhenSenderThrows() {
+		when(smsSender.send(any(Notification.class)))
+				.thenThrow(new IllegalStateException("Provider unavailable"))
+				.thenReturn(CompletableFuture.completedFuture(DeliveryResult.delivered()));
+
+		assertEquals(DeliveryResult.Outcome.TRANSIENT_FAILURE, registry.send(notification).join().outcome());
+		// With a single permit this would block forever if the first send had leaked it
+		assertTrue(registry.send(notification).join().isDelivered());
+	}
+
+	@Test
+	void testHighPrioritySendUsesReservedPermits() {
+		when(smsSender.send(any(Notification.class)))
+				.thenReturn(new CompletableFuture<>())
+				.thenReturn(CompletableFuture.completedFuture(DeliveryResult.delivered()));
+		// The provider never answers, so this send keeps the only standard permit
+		registry.send(notification);
+
+		Notification urgent = Notification.builder().id(2L).type(NotificationType.SMS)
+				.priority(NotificationPriority.HIGH).build();
+
+		assertTrue(registry.send(urgent).join().isDelivered());
+	}
+
+	@Test
+	void testUnknownTypeIsPermanentFailure() {
+		Notification email = Notification.builder().id(2L).type(NotificationType.EMAIL).build();
+
+		DeliveryResult result = registry.send(email).join();
+
+		assertEquals(DeliveryResult.Outcome.PERMANENT_FAILURE, result.outcome());
+	}
+
+	@Test
+	void testOpenCircuitDefersWithoutCallingTheProvider() {
+		when(smsSender.send(any(Notification.class)))
+				.thenReturn(CompletableFuture.completedFuture(DeliveryResult.transientFailure("503")));
+		for (int i = 0; i < 4; i++) {
+			registry.send(notification).join();
+		}
+		assertEquals(CircuitBreaker.State.OPEN, registry.circuitState(NotificationType.SMS));
+		assertEquals(2.0, meterRegistry.get("notification.circuit.state").gauge().value());
+
+		assertEquals(DeliveryResult.Outcome.DEFERRED, registry.send(notification).join().outcome());
+		verify(smsSender, times(4)).send(any(Notification.class));
+
+		// One probe once the open period is over; its success closes the circuit
+		clock.addAndGet(30_000);
+		when(smsSender.send(any(Notification.class)))
+				.thenReturn(CompletableFuture.completedFuture(DeliveryResult.delivered()));
+		assertTrue(registry.send(notification).join().isDelivered());
+		assertEquals(CircuitBreaker.State.CLOSED, registry.circuitState(NotificationType.SMS));
+		assertEquals(1.0, meterRegistry.get("notification.circuit.transitions").tag("state", "CLOSED")
+				.counter().count());
+	}
+}
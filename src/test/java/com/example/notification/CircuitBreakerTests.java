@@ -0,0 +1,78 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CircuitBreakerTests {
+
+	private final AtomicLong now = new AtomicLong();
+
+	private CircuitBreaker breaker;
+
+	@BeforeEach
+	void setUp() {
+		NotificationProperties.Breaker config = new NotificationProperties.Breaker();
+		config.setFailureRateThreshold(50);
+		config.setSlidingWindowSize(10);
+		config.setMinimumCalls(4);
+		config.setOpenDurationMs(1000);
+		config.setHalfOpenProbes(2);
+		breaker = new CircuitBreaker(config, now::get);
+	}
+
+	@Test
+	void testOpensOnceFailureRateReachesThreshold() {
+		assertNull(breaker.onFailure());
+		assertNull(breaker.onFailure());
+		// Not enough calls yet to judge the provider
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		assertNull(breaker.onSuccess());
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.onFailure());
+		assertFalse(breaker.tryAcquire());
+		assertEquals(1000, breaker.openUntilMs());
+	}
+
+	@Test
+	void testHalfOpenProbesCloseTheCircuit() {
+		open();
+		now.addAndGet(1000);
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+
+		assertTrue(breaker.tryAcquire());
+		assertTrue(breaker.tryAcquire());
+		// Only halfOpenProbes calls while the provider is being tested
+		assertFalse(breaker.tryAcquire());
+
+		assertNull(breaker.onSuccess());
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.onSuccess());
+		assertTrue(breaker.tryAcquire());
+	}
+
+	@Test
+	void testFailedProbeOpensTheCircuitAgain() {
+		open();
+		now.addAndGet(1000);
+		assertTrue(breaker.tryAcquire());
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.onFailure());
+		assertFalse(breaker.tryAcquire());
+		assertEquals(2000, breaker.openUntilMs());
+	}
+
+	private void open() {
+		for (int i = 0; i < 4; i++) {
+			breaker.onFailure();
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+	}
+}
@@ -0,0 +1,39 @@
+package com.example.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class CompiledTemplateTests {
+
+	@Test
+	void testPlaceholdersAreFilledFromVariables() {
+		CompiledTemplate template = CompiledTemplate.compile("Hi {{name}}, order {{ order.id }} ships {{name}}-side");
+
+		assertEquals("Hi Ada, order 42 ships Ada-side", template.render(Map.of("name", "Ada", "order.id", "42")));
+		assertEquals(Set.of("name", "order.id"), template.variables());
+	}
+
+	@Test
+	void testTextWithoutPlaceholdersIsReturnedAsIs() {
+		String text = "Your password was changed";
+		CompiledTemplate template = CompiledTemplate.compile(text);
+
+		// No copy is made per render
+		assertSame(text, template.render(Map.of("unused", "x")));
+		assertNull(CompiledTemplate.compile(null));
+	}
+
+	@Test
+	void testMalformedPlaceholderIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("Hi {{name"));
+		assertThrows(IllegalArgumentException.class, () -> CompiledTemplate.compile("Hi {{first name}}"));
+	}
+}
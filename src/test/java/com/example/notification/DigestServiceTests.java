@@ -0,0 +1,76 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.NotificationTemplateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class DigestServiceTests {
+
+	@Mock
+	private NotificationRepository notificationRepository;
+
+	@Mock
+	private OutboxService outboxService;
+
+	@Mock
+	private NotificationTemplateRepository templateRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testCoalescedNotificationsAreFoldedPerUserAndChannel() {
+		User alice = new User(1L, "Alice", "alice@example.com", null, true, true, true);
+		User bob = new User(2L, "Bob", "bob@example.com", null, true, true, true);
+		List<Notification> coalesced = List.of(
+				coalesced(10L, alice, NotificationType.EMAIL, "Disk full"),
+				coalesced(11L, alice, NotificationType.EMAIL, "Disk still full"),
+				coalesced(12L, alice, NotificationType.SMS, "Disk full"),
+				coalesced(13L, bob, NotificationType.EMAIL, "Disk full"));
+		when(notificationRepository.findCoalesced(any(Pageable.class))).thenReturn(coalesced);
+
+		NotificationProperties properties = new NotificationProperties();
+		TemplateService templateService = new TemplateService(templateRepository, properties, new SimpleMeterRegistry());
+		new DigestService(notificationRepository, outboxService, templateService, properties, transactionManager)
+				.sendDigests();
+
+		ArgumentCaptor<List<Notification>> digests = ArgumentCaptor.forClass(List.class);
+		verify(outboxService).enqueueAll(digests.capture());
+		assertEquals(3, digests.getValue().size());
+		Notification aliceEmail = digests.getValue().get(0);
+		assertEquals("2 new notifications", aliceEmail.getSubject());
+		assertEquals("- Disk full\n- Disk still full\n", aliceEmail.getContent());
+		assertEquals(NotificationStatus.PENDING, aliceEmail.getStatus());
+		// The inbox lists the originals, not the digest summarizing them
+		assertTrue(aliceEmail.isDigest());
+		assertTrue(aliceEmail.isRead());
+		assertTrue(coalesced.stream().allMatch(n -> n.getStatus() == NotificationStatus.DIGESTED));
+	}
+
+	private Notification coalesced(Long id, User user, NotificationType type, String subject) {
+		return Notification.builder()
+				.id(id).user(user).type(type).subject(subject).content("Details")
+				.status(NotificationStatus.COALESCED).build();
+	}
+}
@@ -0,0 +1,193 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.dto.BulkNotificationResult;
+import com.example.notification.dto.FanoutRequest;
+import com.example.notification.dto.NotificationRequest;
+import com.example.notification.model.FanoutJob;
+import com.example.notification.model.FanoutSegment;
+import com.example.notification.model.FanoutStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.repository.FanoutJobRepository;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class FanoutServiceTests {
+
+	@Mock
+	private FanoutJobRepository jobRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private NotificationService notificationService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private FanoutService fanoutService;
+
+	@BeforeEach
+	void setUp() {
+		NotificationProperties properties = new NotificationProperties();
+		properties.getFanout().setChunkSize(2);
+		properties.getFanout().setParallelism(2);
+		fanoutService = new FanoutService(jobRepository, userRepository, notificationService, properties,
+				transactionManager, new SimpleMeterRegistry());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testJobStreamsUsersInChunksAndCheckpointsEachOne() {
+		FanoutJob job = job(FanoutSegment.FILTER);
+		job.setSmsEnabled(true);
+		when(userRepository.countMatching(null, true, null)).thenReturn(5L);
+		when(userRepository.findIdsAfter(eq(0L), isNull(), eq(true), isNull(), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+		when(userRepository.findIdsAfter(eq(2L), isNull(), eq(true), isNull(), any(Pageable.class))).thenReturn(List.of(3L, 4L));
+		when(userRepository.findIdsAfter(eq(4L), isNull(), eq(true), isNull(), any(Pageable.class))).thenReturn(List.of(5L));
+		when(notificationService.createNotifications(anyList())).thenAnswer(invocation -> accepted(invocation.getArgument(0)));
+
+		fanoutService.run(1L);
+
+		assertEquals(5, job.getLastUserId());
+		assertEquals(5, job.getProcessed());
+		assertEquals(5, job.getCreated());
+		assertEquals(FanoutStatus.COMPLETED, job.getStatus());
+		verify(jobRepository).markStarted(eq(1L), any(LocalDateTime.class), eq(5L));
+		verify(jobRepository, times(3)).checkpoint(eq(job), any(LocalDateTime.class));
+
+		ArgumentCaptor<List<NotificationRequest>> chunks = ArgumentCaptor.forClass(List.class);
+		verify(notificationService, times(3)).createNotifications(chunks.capture());
+		// Chunks run concurrently, so the first user's chunk is not necessarily the first call
+		NotificationRequest first = chunks.getAllValues().stream().flatMap(List::stream)
+				.filter(request -> request.getUserId() == 1L).findFirst().orElseThrow();
+		assertEquals("Hello", first.getContent());
+		// Lets a resumed run recognise users it already reached
+		assertEquals("fanout-1-1", first.getIdempotencyKey());
+	}
+
+	@Test
+	void testResumedJobContinuesAfterCheckpoint() {
+		FanoutJob job = job(FanoutSegment.USER_IDS);
+		job.setUserIds(List.of(1L, 2L, 3L, 4L));
+		job.setStartedAt(LocalDateTime.now().minusMinutes(1));
+		job.setLastUserId(2L);
+		job.setProcessed(2);
+		job.setCreated(2);
+		when(notificationService.createNotifications(anyList())).thenReturn(List.of(
+				BulkNotificationResult.duplicate(0, 30L), BulkNotificationResult.accepted(1, 40L)));
+
+		fanoutService.run(1L);
+
+		verify(notificationService).createNotifications(argThat(requests -> requests.size() == 2
+				&& requests.get(0).getUserId() == 3L && requests.get(1).getUserId() == 4L));
+		assertEquals(4, job.getLastUserId());
+		assertEquals(4, job.getProcessed());
+		assertEquals(3, job.getCreated());
+		assertEquals(1, job.getDuplicates());
+		verify(jobRepository, never()).markStarted(anyLong(), any(), anyLong());
+	}
+
+	@Test
+	void testFailedRunKeepsCheckpointAndReleasesTheLease() {
+		FanoutJob job = job(FanoutSegment.USER_IDS);
+		job.setUserIds(List.of(1L, 2L, 3L));
+		// Chunks run concurrently, so the failure is tied to the second chunk rather than the second call
+		when(notificationService.createNotifications(anyList())).thenAnswer(invocation -> {
+			List<NotificationRequest> requests = invocation.getArgument(0);
+			if (requests.get(0).getUserId() == 3L) {
+				throw new IllegalStateException("Database unavailable");
+			}
+			return accepted(requests);
+		});
+
+		fanoutService.run(1L);
+
+		assertEquals(2, job.getLastUserId());
+		assertEquals(FanoutStatus.RUNNING, job.getStatus());
+		verify(jobRepository).release(eq(1L), eq(FanoutStatus.RUNNING), eq(1), eq("Database unavailable"), isNull(),
+				any(LocalDateTime.class));
+		verify(jobRepository, never()).release(anyLong(), eq(FanoutStatus.COMPLETED), anyInt(), any(), any(), any());
+		// Not claimable again until the backoff has passed
+		assertTrue(job.getLeaseUntil().isAfter(LocalDateTime.now().plusSeconds(5)));
+	}
+
+	@Test
+	void testFailureBeforeTheFirstChunkCountsAsAnAttempt() {
+		FanoutJob job = job(FanoutSegment.ALL);
+		job.setAttempts(1);
+		when(userRepository.countMatching(null, null, null)).thenThrow(new IllegalStateException("Database unavailable"));
+
+		fanoutService.run(1L);
+
+		assertNull(job.getStartedAt());
+		verify(jobRepository, never()).markStarted(anyLong(), any(), anyLong());
+		verify(jobRepository).release(eq(1L), eq(FanoutStatus.RUNNING), eq(2), eq("Database unavailable"), isNull(),
+				any(LocalDateTime.class));
+		// Second failure waits twice as long
+		assertTrue(job.getLeaseUntil().isAfter(LocalDateTime.now().plusSeconds(15)));
+	}
+
+	@Test
+	void testJobNeedsSegmentAndNotificationButNoRecipient() {
+		// The per-recipient userId is ignored, so a notification without one is valid
+		NotificationRequest notification = new NotificationRequest(null, NotificationType.EMAIL, "Hello", null);
+		when(jobRepository.save(any(FanoutJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> fanoutService.createJob(FanoutRequest.builder().notification(notification).build()));
+		assertThrows(IllegalArgumentException.class,
+				() -> fanoutService.createJob(FanoutRequest.builder().segment(FanoutSegment.ALL).build()));
+		verify(jobRepository, never()).save(any());
+
+		FanoutJob job = fanoutService.createJob(FanoutRequest.builder()
+				.segment(FanoutSegment.ALL).notification(notification).build());
+		assertEquals(FanoutSegment.ALL, job.getSegment());
+		assertEquals("Hello", job.getContent());
+	}
+
+	private FanoutJob job(FanoutSegment segment) {
+		FanoutJob job = FanoutJob.builder()
+				.id(1L)
+				.segment(segment)
+				.type(NotificationType.EMAIL)
+				.content("Hello")
+				.status(FanoutStatus.RUNNING)
+				.build();
+		when(jobRepository.findById(1L)).thenReturn(Optional.of(job));
+		return job;
+	}
+
+	private static List<BulkNotificationResult> accepted(List<NotificationRequest> requests) {
+		List<BulkNotificationResult> results = new ArrayList<>(requests.size());
+		for (int i = 0; i < requests.size(); i++) {
+			results.add(BulkNotificationResult.accepted(i, requests.get(i).getUserId() * 10));
+		}
+		return results;
+	}
+}
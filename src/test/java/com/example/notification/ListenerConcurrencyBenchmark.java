@@ -0,0 +1,142 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+// Not picked up by the default surefire includes; run with
+// mvn test -Dtest=ListenerConcurrencyBenchmark
+public class ListenerConcurrencyBenchmark {
+
+	private static final int MESSAGES = 4000;
+	private static final int BATCH_SIZE = 10;
+	private static final long CHANNEL_LATENCY_MS = 5;
+	private static final int[] CONSUMER_COUNTS = {1, 2, 4, 8, 16, 32};
+
+	@Test
+	void throughputScalesWithConsumerCount() throws Exception {
+		NotificationProcessor processor = processorWithSimulatedLatency();
+
+		System.out.printf("%-10s %-10s %15s%n", "consumers", "threads", "messages/sec");
+		double singleConsumer = 0;
+		double maxConsumers = 0;
+		for (int consumers : CONSUMER_COUNTS) {
+			for (boolean virtualThreads : new boolean[]{false, true}) {
+				double throughput = run(processor, consumers, virtualThreads);
+				System.out.printf("%-10d %-10s %15.0f%n", consumers, virtualThreads ? "virtual" : "platform", throughput);
+				if (!virtualThreads && consumers == 1) {
+					singleConsumer = throughput;
+				}
+				if (!virtualThreads && consumers == CONSUMER_COUNTS[CONSUMER_COUNTS.length - 1]) {
+					maxConsumers = throughput;
+				}
+			}
+		}
+
+		// Sends are latency bound, so throughput should grow roughly with the consumer count
+		assertTrue(maxConsumers > singleConsumer * 8,
+				"Expected throughput to scale with consumers: " + singleConsumer + " -> " + maxConsumers);
+	}
+
+	// Consumers pull batches from a shared in-memory queue the same way listener containers share notification.queue
+	private double run(NotificationProcessor processor, int consumers, boolean virtualThreads) throws Exception {
+		LinkedBlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+		for (long id = 1; id <= MESSAGES; id++) {
+			queue.add(id);
+		}
+
+		ExecutorService executor = virtualThreads
+				? Executors.newVirtualThreadPerTaskExecutor()
+				: Executors.newFixedThreadPool(consumers);
+		long start = System.nanoTime();
+		for (int i = 0; i < consumers; i++) {
+			executor.execute(() -> {
+				List<Long> batch = new ArrayList<>(BATCH_SIZE);
+				while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+					processor.processNotifications(batch);
+					batch = new ArrayList<>(BATCH_SIZE);
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		return MESSAGES / seconds;
+	}
+
+	private NotificationProcessor processorWithSimulatedLatency() {
+		User user = new User(1L, "Bench User", "bench@example.com", "+1234567890", true, true, true);
+
+		NotificationRepository notificationRepository = mock(NotificationRepository.class);
+		when(notificationRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+			Iterable<Long> ids = invocation.getArgument(0);
+			List<Notification> notifications = new ArrayList<>();
+			for (Long id : ids) {
+				notifications.add(Notification.builder()
+						.id(id).user(user).type(NotificationType.EMAIL)
+						.status(NotificationStatus.PENDING).build());
+			}
+			return notifications;
+		});
+
+		NotificationProperties properties = new NotificationProperties();
+		// Let the consumer count, not the per-channel in-flight cap, be the limiting factor
+		properties.getChannels().getEmail().setMaxInFlight(10_000);
+
+		ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+		ChannelSender emailSender = new ChannelSender() {
+			@Override
+			public NotificationType type() {
+				return NotificationType.EMAIL;
+			}
+
+			@Override
+			public CompletableFuture<DeliveryResult> send(Notification notification) {
+				return CompletableFuture.supplyAsync(() -> {
+					sleep(CHANNEL_LATENCY_MS);
+					return DeliveryResult.delivered();
+				}, sendExecutor);
+			}
+		};
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		NotificationTracing tracing = new NotificationTracing(Tracer.NOOP, Propagator.NOOP);
+		LogSampler logSampler = new LogSampler(properties);
+		NotificationService notificationService = new NotificationService(notificationRepository,
+				null, null, null, null, null, null, null, null, null, tracing, logSampler, meterRegistry, properties, null);
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user));
+		return new NotificationProcessor(notificationRepository, notificationService,
+				new ChannelSenderRegistry(List.of(emailSender), properties, meterRegistry),
+				new UserCache(userRepository, properties, meterRegistry), tracing, logSampler, meterRegistry);
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.example.notification.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+// Not picked up by the default surefire includes; run with
+// mvn test -Dtest=LoggingBenchmark
+public class LoggingBenchmark {
+
+	private static final int MESSAGES = 200_000;
+	private static final int BATCH_SIZE = 50;
+	private static final int CONSUMERS = 8;
+	private static final int ROUNDS = 3;
+	private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+	@Test
+	void throughputWithAndWithoutPerMessageLogging() throws Exception {
+		NotificationProcessor processor = processorWithInAppSender();
+		File logFile = new File("target/logging-benchmark.log");
+		LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+		Logger appLogger = context.getLogger("com.example.notification");
+		Level originalLevel = appLogger.getLevel();
+		boolean originalAdditive = appLogger.isAdditive();
+
+		double perMessage = 0;
+		double sampled = 0;
+		try {
+			appLogger.setAdditive(false);
+			run(processor);
+			for (int round = 0; round < ROUNDS; round++) {
+				// Previous configuration: every per-message line at DEBUG, written synchronously
+				perMessage = Math.max(perMessage, runWithLogging(processor, appLogger, Level.DEBUG,
+						fileAppender(context, logFile)));
+				// Current configuration: INFO with 1 in 1000 notifications sampled, through the async appender
+				sampled = Math.max(sampled, runWithLogging(processor, appLogger, Level.INFO,
+						asyncAppender(context, fileAppender(context, logFile))));
+			}
+		} finally {
+			appLogger.setLevel(originalLevel);
+			appLogger.setAdditive(originalAdditive);
+		}
+
+		System.out.printf("%-30s %15s%n", "logging", "messages/sec");
+		System.out.printf("%-30s %,15.0f%n", "per-message, synchronous", perMessage);
+		System.out.printf("%-30s %,15.0f%n", "sampled, asynchronous", sampled);
+
+		assertTrue(sampled > perMessage, "Expected sampled logging to be faster: " + perMessage + " -> " + sampled);
+	}
+
+	private double runWithLogging(NotificationProcessor processor, Logger appLogger, Level level,
+								  Appender<ILoggingEvent> appender) throws Exception {
+		appLogger.setLevel(level);
+		appLogger.addAppender(appender);
+		try {
+			return run(processor);
+		} finally {
+			appLogger.detachAppender(appender);
+			appender.stop();
+		}
+	}
+
+	// Consumers pull batches from a shared in-memory queue the same way listener containers share a queue
+	private double run(NotificationProcessor processor) throws Exception {
+		LinkedBlockingQueue<Long> queue = new LinkedBlockingQueue<>();
+		for (long id = 1; id <= MESSAGES; id++) {
+			queue.add(id);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(CONSUMERS);
+		long start = System.nanoTime();
+		for (int i = 0; i < CONSUMERS; i++) {
+			executor.execute(() -> {
+				List<Long> batch = new ArrayList<>(BATCH_SIZE);
+				while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+					processor.processNotifications(batch);
+					batch = new ArrayList<>(BATCH_SIZE);
+				}
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(5, TimeUnit.MINUTES));
+
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+		return MESSAGES / seconds;
+	}
+
+	private static FileAppender<ILoggingEvent> fileAppender(LoggerContext context, File file) {
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern(PATTERN);
+		encoder.start();
+
+		FileAppender<ILoggingEvent> appender = new FileAppender<>();
+		appender.setContext(context);
+		appender.setFile(file.getPath());
+		appender.setAppend(false);
+		appender.setEncoder(encoder);
+		appender.start();
+		return appender;
+	}
+
+	// Same settings as ASYNC_CONSOLE in logback-spring.xml
+	private static AsyncAppender asyncAppender(LoggerContext context, Appender<ILoggingEvent> delegate) {
+		AsyncAppender appender = new AsyncAppender();
+		appender.setContext(context);
+		appender.setQueueSize(8192);
+		appender.setNeverBlock(true);
+		appender.addAppender(delegate);
+		appender.start();
+		return appender;
+	}
+
+	private NotificationProcessor processorWithInAppSender() {
+		User user = new User(1L, "Bench User", "bench@example.com", "+1234567890", true, true, true);
+
+		NotificationRepository notificationRepository = mock(NotificationRepository.class, withSettings().stubOnly());
+		when(notificationRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+			Iterable<Long> ids = invocation.getArgument(0);
+			List<Notification> notifications = new ArrayList<>();
+			for (Long id : ids) {
+				notifications.add(Notification.builder()
+						.id(id).user(user).type(NotificationType.IN_APP)
+						.subject("Order shipped").content("Your order to 1 Main Street has shipped")
+						.status(NotificationStatus.PENDING).build());
+			}
+			return notifications;
+		});
+
+		NotificationProperties properties = new NotificationProperties();
+		properties.getChannels().getInApp().setMaxInFlight(10_000);
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		NotificationTracing tracing = new NotificationTracing(Tracer.NOOP, Propagator.NOOP);
+		LogSampler logSampler = new LogSampler(properties);
+		NotificationService notificationService = new NotificationService(notificationRepository,
+				null, null, null, null, null, null, null, null, null, tracing, logSampler, meterRegistry, properties, null);
+		UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+		when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user));
+		// No connected clients and no cluster relay, so every in-app notification falls back to the inbox
+		ExecutorService pushExecutor = Executors.newVirtualThreadPerTaskExecutor();
+		InAppService inAppSender = new InAppService(new PushSessionRegistry(properties, pushExecutor, meterRegistry),
+				new TemplateService(null, properties, meterRegistry), Optional.empty());
+		return new NotificationProcessor(notificationRepository, notificationService,
+				new ChannelSenderRegistry(List.of(inAppSender), properties, meterRegistry),
+				new UserCache(userRepository, properties, meterRegistry), tracing, logSampler, meterRegistry);
+	}
+}
@@ -0,0 +1,62 @@
+package com.example.notification.repository;
+
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class NotificationBatchingTests {
+
+	private static final int NOTIFICATION_COUNT = 500;
+	private static final int BATCH_SIZE = 50;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	@Transactional
+	void testInsertsAreFlushedInJdbcBatches() {
+		User user = userRepository.save(new User(null, "Batch User", "batch@example.com", null, true, true, true));
+		entityManager.flush();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		for (int i = 0; i < NOTIFICATION_COUNT; i++) {
+			notificationRepository.save(Notification.builder()
+					.user(user)
+					.type(NotificationType.IN_APP)
+					.content("Notification " + i)
+					.build());
+		}
+		entityManager.flush();
+
+		// One statement per batch of inserts plus one sequence call per block of 50 IDs
+		long expected = NOTIFICATION_COUNT / BATCH_SIZE * 2 + 1;
+		long statements = statistics.getPrepareStatementCount();
+		assertTrue(statements <= expected,
+				"Expected at most " + expected + " statements for " + NOTIFICATION_COUNT + " inserts but was " + statements);
+		assertEquals(NOTIFICATION_COUNT, statistics.getEntityInsertCount());
+	}
+}
@@ -0,0 +1,225 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.rabbit.support.ListenerExecutionFailedException;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class NotificationProcessorTests {
+
+	@Mock
+	private NotificationRepository notificationRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private UserCache userCache;
+
+	@Mock
+	private RecentIdempotencyKeys recentKeys;
+
+	@Mock
+	private OutboxService outboxService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private ChannelSender emailSender;
+
+	@Mock
+	private ChannelSender smsSender;
+
+	@Mock
+	private ChannelSender inAppSender;
+
+	@Autowired
+	private SimpleRabbitListenerContainerFactory emailListenerContainerFactory;
+
+	@Autowired
+	private SimpleRabbitListenerContainerFactory smsPriorityListenerContainerFactory;
+
+	@Autowired
+	private MessageRecoverer batchRejectingRecoverer;
+
+	private final NotificationTracing tracing = new NotificationTracing(Tracer.NOOP, Propagator.NOOP);
+
+	private final LogSampler logSampler = new LogSampler(new NotificationProperties());
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private NotificationProcessor notificationProcessor;
+
+	private User testUser;
+
+	@BeforeEach
+	void setUp() {
+		when(emailSender.type()).thenReturn(NotificationType.EMAIL);
+		when(smsSender.type()).thenReturn(NotificationType.SMS);
+		when(inAppSender.type()).thenReturn(NotificationType.IN_APP);
+		ChannelSenderRegistry registry = new ChannelSenderRegistry(
+				List.of(emailSender, smsSender, inAppSender), new NotificationProperties(), meterRegistry);
+		NotificationService notificationService = new NotificationService(
+				notificationRepository, null, userRepository, userCache, recentKeys, null, null, outboxService, registry,
+				null, tracing, logSampler, meterRegistry, new NotificationProperties(), transactionManager);
+		notificationProcessor = new NotificationProcessor(notificationRepository, notificationService, registry,
+				userCache, tracing, logSampler, meterRegistry);
+
+		testUser = new User(1L, "Test User", "test@example.com", "+1234567890", true, true, true);
+	}
+
+	@Test
+	void testProcessNotificationsLoadsBatchOnceAndUpdatesInMemory() {
+		Notification email = Notification.builder()
+				.id(1L).user(testUser).type(NotificationType.EMAIL)
+				.status(NotificationStatus.PENDING).createdAt(LocalDateTime.now().minusSeconds(2)).build();
+		Notification sms = Notification.builder()
+				.id(2L).user(testUser).type(NotificationType.SMS)
+				.status(NotificationStatus.PENDING).build();
+		Notification inApp = Notification.builder()
+				.id(3L).user(testUser).type(NotificationType.IN_APP)
+				.status(NotificationStatus.PENDING).build();
+
+		when(notificationRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(email, sms, inApp));
+		when(userCache.getAll(Set.of(1L))).thenReturn(Map.of(1L, testUser));
+		when(emailSender.send(email)).thenReturn(CompletableFuture.completedFuture(DeliveryResult.delivered()));
+		when(smsSender.send(sms)).thenReturn(CompletableFuture.completedFuture(DeliveryResult.transientFailure("Timeout")));
+		when(inAppSender.send(inApp)).thenReturn(CompletableFuture.completedFuture(DeliveryResult.permanentFailure("Invalid")));
+
+		notificationProcessor.processNotifications(List.of(1L, 2L, 3L));
+
+		assertEquals(NotificationStatus.SENT, email.getStatus());
+		assertNotNull(email.getSentAt());
+		assertEquals(NotificationStatus.RETRY, sms.getStatus());
+		assertEquals(1, sms.getRetryCount());
+		// Permanent failures skip the retry cycle
+		assertEquals(NotificationStatus.FAILED, inApp.getStatus());
+		assertEquals(0, inApp.getRetryCount());
+
+		verify(notificationRepository, times(1)).findAllById(List.of(1L, 2L, 3L));
+		verify(userCache, times(1)).getAll(Set.of(1L));
+		verify(userRepository, never()).findById(anyLong());
+		verify(notificationRepository, never()).findById(anyLong());
+		verify(notificationRepository, never()).save(any(Notification.class));
+
+		assertEquals(1.0, meterRegistry.get("notification.delivery")
+				.tags("channel", "SMS", "outcome", "TRANSIENT_FAILURE").counter().count());
+		Timer endToEnd = meterRegistry.get("notification.end_to_end")
+				.tags("channel", "EMAIL", "priority", "NORMAL").timer();
+		assertEquals(1, endToEnd.count());
+		assertTrue(endToEnd.totalTime(TimeUnit.SECONDS) >= 2.0);
+	}
+
+	@Test
+	void testReceivedMessagesRecordQueueLatency() {
+		Notification email = Notification.builder()
+				.id(1L).user(testUser).type(NotificationType.EMAIL)
+				.status(NotificationStatus.PENDING).build();
+		when(notificationRepository.findAllById(List.of(1L))).thenReturn(List.of(email));
+		when(userCache.getAll(Set.of(1L))).thenReturn(Map.of(1L, testUser));
+		when(emailSender.send(email)).thenReturn(CompletableFuture.completedFuture(DeliveryResult.delivered()));
+
+		Message<Long> message = MessageBuilder.withPayload(1L)
+				.setHeader(AmqpHeaders.TIMESTAMP, new Date(System.currentTimeMillis() - 500))
+				.setHeader(AmqpHeaders.CONSUMER_QUEUE, "notification.email.queue")
+				.setHeader(NotificationTracing.TRACE_PARENT_HEADER,
+						"00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01")
+				.build();
+		notificationProcessor.receiveNotifications(List.of(message));
+
+		assertEquals(NotificationStatus.SENT, email.getStatus());
+		Timer queueLatency = meterRegistry.get("notification.queue.latency")
+				.tag("queue", "notification.email.queue").timer();
+		assertEquals(1, queueLatency.count());
+		assertTrue(queueLatency.totalTime(TimeUnit.MILLISECONDS) >= 500);
+	}
+
+	@Test
+	void testChannelDisabledAfterIngestIsSuppressedNotSent() {
+		testUser.setEmailEnabled(false);
+		Notification email = Notification.builder()
+				.id(1L).user(testUser).type(NotificationType.EMAIL)
+				.status(NotificationStatus.PENDING).build();
+
+		when(notificationRepository.findAllById(List.of(1L))).thenReturn(List.of(email));
+		when(userCache.getAll(Set.of(1L))).thenReturn(Map.of(1L, testUser));
+		when(notificationRepository.markRead(1L, List.of(1L))).thenReturn(1);
+
+		notificationProcessor.processNotifications(List.of(1L));
+
+		assertEquals(NotificationStatus.SUPPRESSED, email.getStatus());
+		assertNull(email.getSentAt());
+		verify(emailSender, never()).send(any(Notification.class));
+		verify(userRepository).adjustUnreadCount(List.of(1L), -1);
+	}
+
+	@Test
+	void testRedeliveredSentNotificationIsNotDispatchedAgain() {
+		Notification sent = Notification.builder()
+				.id(1L).user(testUser).type(NotificationType.EMAIL)
+				.status(NotificationStatus.SENT).build();
+
+		when(notificationRepository.findAllById(List.of(1L))).thenReturn(List.of(sent));
+		when(userCache.getAll(anySet())).thenReturn(Map.of());
+
+		notificationProcessor.processNotifications(List.of(1L));
+
+		assertEquals(NotificationStatus.SENT, sent.getStatus());
+		verify(emailSender, never()).send(any(Notification.class));
+	}
+
+	@Test
+	void testFailedBatchesAreRetriedAndThenRejectedWithoutRequeue() {
+		// spring.rabbitmq.listener.simple.retry.* reaches the batch listeners through Boot's configurer
+		assertEquals(1, emailListenerContainerFactory.getAdviceChain().length);
+		assertEquals(1, smsPriorityListenerContainerFactory.getAdviceChain().length);
+
+		List<org.springframework.amqp.core.Message> batch = List.of(
+				new org.springframework.amqp.core.Message("1".getBytes(), new MessageProperties()),
+				new org.springframework.amqp.core.Message("2".getBytes(), new MessageProperties()));
+		ListenerExecutionFailedException e = assertThrows(ListenerExecutionFailedException.class,
+				() -> ((MessageBatchRecoverer) batchRejectingRecoverer).recover(batch, new IllegalStateException()));
+		assertInstanceOf(AmqpRejectAndDontRequeueException.class, e.getCause());
+		assertEquals(batch, e.getFailedMessages());
+	}
+}
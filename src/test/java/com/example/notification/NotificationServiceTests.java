@@ -1,28 +1,46 @@
 package com.example.notification.service;
 
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.dto.BulkNotificationResult;
+import com.example.notification.dto.InboxItem;
+import com.example.notification.dto.InboxPage;
 import com.example.notification.dto.NotificationRequest;
+import com.example.notification.dto.UnreadCount;
 import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationPriority;
 import com.example.notification.model.NotificationStatus;
 import com.example.notification.model.NotificationType;
 import com.example.notification.model.User;
+import com.example.notification.repository.ArchivedNotificationRepository;
 import com.example.notification.repository.NotificationRepository;
 import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -36,7 +54,43 @@ public class NotificationServiceTests {
 	private NotificationRepository notificationRepository;
 
 	@Mock
-	private RabbitTemplate rabbitTemplate;
+	private ArchivedNotificationRepository archivedRepository;
+
+	@Mock
+	private UserCache userCache;
+
+	@Mock
+	private RecentIdempotencyKeys recentKeys;
+
+	@Mock
+	private RateLimiter rateLimiter;
+
+	@Mock
+	private ScheduledDeliveryService scheduledDelivery;
+
+	@Mock
+	private OutboxService outboxService;
+
+	@Mock
+	private ChannelSenderRegistry channelSenderRegistry;
+
+	@Mock
+	private TemplateService templateService;
+
+	@Mock
+	private NotificationTracing tracing;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Spy
+	private LogSampler logSampler = new LogSampler(new NotificationProperties());
+
+	@Spy
+	private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Spy
+	private NotificationProperties properties = new NotificationProperties();
 
 	@InjectMocks
 	private NotificationService notificationService;
@@ -63,8 +117,11 @@ public class NotificationServiceTests {
 				.build();
 
 		when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+		when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+		when(userCache.get(1L)).thenReturn(Optional.of(testUser));
+		when(rateLimiter.tryAcquire(anyLong(), any())).thenReturn(true);
 		when(notificationRepository.save(any(Notification.class))).thenReturn(testNotification);
-		doNothing().when(rabbitTemplate).convertAndSend(anyString(), anyLong());
+		when(channelSenderRegistry.circuitState(any())).thenReturn(CircuitBreaker.State.CLOSED);
 	}
 
 	@Test
@@ -80,32 +137,189 @@ public class NotificationServiceTests {
 		assertNotNull(result);
 		assertEquals(NotificationStatus.PENDING, result.getStatus());
 		verify(notificationRepository, times(1)).save(any(Notification.class));
-		verify(rabbitTemplate, times(1)).convertAndSend(anyString(), anyLong());
+		verify(outboxService, times(1)).enqueue(testNotification);
+		// Existence comes from the near-cache; the row itself is never loaded
+		verify(userRepository, never()).findById(anyLong());
+		verify(userRepository, times(1)).adjustUnreadCount(List.of(1L), 1);
+	}
+
+	@Test
+	void testRepeatedIdempotencyKeyReturnsOriginalNotification() {
+		NotificationRequest request = new NotificationRequest(1L, NotificationType.EMAIL, "Retried", null);
+		request.setIdempotencyKey("order-42");
+		when(recentKeys.find("order-42")).thenReturn(1L);
+		when(notificationRepository.findById(1L)).thenReturn(Optional.of(testNotification));
+
+		Notification result = notificationService.createNotification(request);
+
+		assertSame(testNotification, result);
+		verify(notificationRepository, never()).save(any(Notification.class));
+		verify(notificationRepository, never()).findByIdempotencyKey(any());
+		verify(outboxService, never()).enqueue(any());
+	}
+
+	@Test
+	void testOptedOutNotificationIsSuppressedAtIngest() {
+		testUser.setSmsEnabled(false);
+		when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		Notification result = notificationService.createNotification(
+				new NotificationRequest(1L, NotificationType.SMS, "Opted out", null));
+
+		assertEquals(NotificationStatus.SUPPRESSED, result.getStatus());
+		assertTrue(result.isRead());
+		verify(outboxService, never()).enqueue(any());
+		verify(userRepository, never()).adjustUnreadCount(anyCollection(), anyLong());
+	}
+
+	@Test
+	void testNotificationOverRateLimitIsCoalesced() {
+		when(rateLimiter.tryAcquire(1L, NotificationType.EMAIL)).thenReturn(false);
+		when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		Notification result = notificationService.createNotification(
+				new NotificationRequest(1L, NotificationType.EMAIL, "Flooded", null));
+
+		assertEquals(NotificationStatus.COALESCED, result.getStatus());
+		// Still in the inbox, but only sent with the next digest
+		verify(userRepository).adjustUnreadCount(List.of(1L), 1);
+		verify(outboxService, never()).enqueue(any());
+	}
+
+	@Test
+	void testHighPriorityNotificationIsNotRateLimited() {
+		when(rateLimiter.tryAcquire(1L, NotificationType.SMS)).thenReturn(false);
+		when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		NotificationRequest request = new NotificationRequest(1L, NotificationType.SMS, "Your code is 123456", null);
+		request.setPriority(NotificationPriority.HIGH);
+
+		Notification result = notificationService.createNotification(request);
+
+		assertEquals(NotificationStatus.PENDING, result.getStatus());
+		assertEquals(NotificationPriority.HIGH, result.getPriority());
+		verify(rateLimiter, never()).tryAcquire(anyLong(), any());
+		verify(outboxService).enqueue(result);
+	}
+
+	@Test
+	void testFutureNotificationIsHeldUntilScheduledTime() {
+		when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		NotificationRequest request = new NotificationRequest(1L, NotificationType.EMAIL, "Good morning", null);
+		request.setScheduledAt(LocalDateTime.now().plusHours(8));
+
+		Notification result = notificationService.createNotification(request);
+
+		assertEquals(NotificationStatus.SCHEDULED, result.getStatus());
+		assertEquals(request.getScheduledAt(), result.getScheduledAt());
+		// Not in the unread count, and not rate limited, until it is released
+		assertTrue(result.isRead());
+		verify(userRepository, never()).adjustUnreadCount(anyCollection(), anyLong());
+		verify(rateLimiter, never()).tryAcquire(anyLong(), any());
+		verify(outboxService, never()).enqueue(any());
+		verify(scheduledDelivery).track(List.of(result));
 	}
 
 	@Test
 	void testGetUserNotifications() {
-		Notification notification1 = Notification.builder()
-				.id(1L)
-				.user(testUser)
-				.content("Notification 1")
-				.build();
+		LocalDateTime now = LocalDateTime.now();
+		InboxItem item1 = new InboxItem(3L, NotificationType.EMAIL, null, "Notification 3",
+				NotificationStatus.SENT, false, now, now);
+		InboxItem item2 = new InboxItem(2L, NotificationType.EMAIL, null, "Notification 2",
+				NotificationStatus.SENT, false, now.minusMinutes(1), now);
+		InboxItem item3 = new InboxItem(1L, NotificationType.EMAIL, null, "Notification 1",
+				NotificationStatus.SENT, false, now.minusMinutes(2), now);
 
-		Notification notification2 = Notification.builder()
-				.id(2L)
-				.user(testUser)
-				.content("Notification 2")
-				.build();
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(notificationRepository.findInbox(eq(1L), any(Pageable.class)))
+				.thenReturn(Arrays.asList(item1, item2, item3));
+
+		InboxPage first = notificationService.getUserNotifications(1L, null, 2);
+
+		assertEquals(2, first.getItems().size());
+		assertNotNull(first.getNextCursor());
+		verify(notificationRepository).findInbox(1L, PageRequest.of(0, 3));
+
+		when(notificationRepository.findInboxAfter(eq(1L), any(), anyLong(), any(Pageable.class)))
+				.thenReturn(List.of(item3));
 
-		List<Notification> notificationList = Arrays.asList(notification1, notification2);
+		InboxPage second = notificationService.getUserNotifications(1L, first.getNextCursor(), 2);
+
+		assertEquals(1, second.getItems().size());
+		assertNull(second.getNextCursor());
+		verify(notificationRepository).findInboxAfter(1L, item2.getCreatedAt(), 2L, PageRequest.of(0, 3));
+	}
+
+	@Test
+	void testGetUserNotificationsContinuesIntoArchive() {
+		LocalDateTime now = LocalDateTime.now();
+		InboxItem live = new InboxItem(9L, NotificationType.EMAIL, null, "Still retrying",
+				NotificationStatus.RETRY, false, now.minusDays(40), null);
+		InboxItem recent = new InboxItem(3L, NotificationType.EMAIL, null, "Archived 3",
+				NotificationStatus.SENT, true, now.minusDays(31), now);
+		InboxItem older = new InboxItem(2L, NotificationType.EMAIL, null, "Archived 2",
+				NotificationStatus.SENT, true, now.minusDays(45), now);
 
 		when(userRepository.existsById(1L)).thenReturn(true);
-		when(notificationRepository.findByUserIdOrderByCreatedAtDesc(1L)).thenReturn(notificationList);
+		when(notificationRepository.findInbox(eq(1L), any(Pageable.class))).thenReturn(List.of(live));
+		when(archivedRepository.findInbox(eq(1L), any(Pageable.class))).thenReturn(List.of(recent, older));
+
+		InboxPage first = notificationService.getUserNotifications(1L, null, 2, true);
+
+		// Merged in inbox order regardless of which table a row is in
+		assertEquals(List.of(3L, 9L), first.getItems().stream().map(InboxItem::getId).toList());
+		assertNotNull(first.getNextCursor());
+
+		when(notificationRepository.findInboxAfter(eq(1L), any(), anyLong(), any(Pageable.class))).thenReturn(List.of());
+		when(archivedRepository.findInboxAfter(eq(1L), any(), anyLong(), any(Pageable.class))).thenReturn(List.of(older));
+
+		InboxPage second = notificationService.getUserNotifications(1L, first.getNextCursor(), 2, true);
+
+		assertEquals(List.of(older), second.getItems());
+		assertNull(second.getNextCursor());
+		verify(archivedRepository).findInboxAfter(1L, live.getCreatedAt(), 9L, PageRequest.of(0, 3));
+	}
+
+	@Test
+	void testGetUserNotificationsListsRowMovedBetweenQueriesOnce() {
+		LocalDateTime now = LocalDateTime.now();
+		InboxItem newer = new InboxItem(5L, NotificationType.EMAIL, null, "Live",
+				NotificationStatus.SENT, false, now, now);
+		InboxItem moved = new InboxItem(4L, NotificationType.EMAIL, null, "Moving",
+				NotificationStatus.SENT, false, now.minusDays(31), now);
+		InboxItem older = new InboxItem(3L, NotificationType.EMAIL, null, "Archived",
+				NotificationStatus.SENT, false, now.minusDays(32), now);
+
+		when(userRepository.existsById(1L)).thenReturn(true);
+		// Retention committed between the two reads, so both saw notification 4
+		when(notificationRepository.findInbox(eq(1L), any(Pageable.class))).thenReturn(List.of(newer, moved));
+		when(archivedRepository.findInbox(eq(1L), any(Pageable.class))).thenReturn(List.of(moved, older));
+
+		InboxPage page = notificationService.getUserNotifications(1L, null, 10, true);
+
+		assertEquals(List.of(5L, 4L, 3L), page.getItems().stream().map(InboxItem::getId).toList());
+	}
+
+	@Test
+	void testGetUserNotificationsSkipsArchiveUnlessAsked() {
+		when(userRepository.existsById(1L)).thenReturn(true);
+		when(notificationRepository.findInbox(eq(1L), any(Pageable.class))).thenReturn(List.of());
+
+		notificationService.getUserNotifications(1L, null, 2);
+
+		verifyNoInteractions(archivedRepository);
+	}
+
+	@Test
+	void testMarkAsReadDecrementsUnreadCountByRowsChanged() {
+		// Notification 3 was already read, so only two rows flip
+		when(notificationRepository.markRead(1L, List.of(1L, 2L, 3L))).thenReturn(2);
+		when(userRepository.findUnreadCount(1L)).thenReturn(Optional.of(5L));
 
-		List<Notification> result = notificationService.getUserNotifications(1L);
+		UnreadCount result = notificationService.markAsRead(1L, List.of(1L, 2L, 3L));
 
-		assertEquals(2, result.size());
-		verify(notificationRepository, times(1)).findByUserIdOrderByCreatedAtDesc(1L);
+		assertEquals(5L, result.getUnreadCount());
+		verify(userRepository).adjustUnreadCount(List.of(1L), -2);
+		verify(notificationRepository, never()).count();
 	}
 
 	@Test
@@ -127,27 +341,171 @@ public class NotificationServiceTests {
 
 		assertEquals(NotificationStatus.RETRY, testNotification.getStatus());
 		assertEquals(1, testNotification.getRetryCount());
+		assertTrue(testNotification.getNextRetryAt().isAfter(LocalDateTime.now()));
 		verify(notificationRepository, times(1)).save(testNotification);
 	}
 
 	@Test
 	void testRetryFailedNotifications() {
+		properties.getRetry().setSweepChunkSize(2);
+
 		Notification notification1 = Notification.builder()
 				.id(1L)
+				.type(NotificationType.EMAIL)
 				.status(NotificationStatus.RETRY)
 				.build();
 
 		Notification notification2 = Notification.builder()
 				.id(2L)
+				.type(NotificationType.SMS)
+				.status(NotificationStatus.RETRY)
+				.build();
+
+		Notification notification3 = Notification.builder()
+				.id(3L)
+				.type(NotificationType.SMS)
 				.status(NotificationStatus.RETRY)
 				.build();
 
-		List<Notification> retryList = Arrays.asList(notification1, notification2);
+		List<Notification> firstChunk = Arrays.asList(notification1, notification2);
+		List<Notification> secondChunk = List.of(notification3);
 
-		when(notificationRepository.findByStatus(NotificationStatus.RETRY)).thenReturn(retryList);
+		// Keyset pagination: the second chunk starts after the last ID of the first one
+		when(notificationRepository.findDueRetries(any(LocalDateTime.class), eq(0L), any(Pageable.class))).thenReturn(firstChunk);
+		when(notificationRepository.findDueRetries(any(LocalDateTime.class), eq(2L), any(Pageable.class))).thenReturn(secondChunk);
 
 		notificationService.retryFailedNotifications();
 
-		verify(rabbitTemplate, times(2)).convertAndSend(anyString(), anyLong());
+		verify(notificationRepository, times(1)).claimForRetry(List.of(1L, 2L));
+		verify(notificationRepository, times(1)).claimForRetry(List.of(3L));
+		verify(notificationRepository, never()).save(any(Notification.class));
+		verify(outboxService, times(1)).enqueueAll(firstChunk);
+		verify(outboxService, times(1)).enqueueAll(secondChunk);
+		// One transaction per chunk
+		verify(transactionManager, times(2)).commit(any());
+	}
+
+	@Test
+	void testRetrySweepParksOpenChannelsAndRationsHalfOpenProbes() {
+		properties.getChannels().getSms().getCircuitBreaker().setHalfOpenProbes(1);
+		when(channelSenderRegistry.circuitState(NotificationType.EMAIL)).thenReturn(CircuitBreaker.State.OPEN);
+		when(channelSenderRegistry.circuitState(NotificationType.SMS)).thenReturn(CircuitBreaker.State.HALF_OPEN);
+
+		Notification email = Notification.builder().id(1L).type(NotificationType.EMAIL)
+				.status(NotificationStatus.RETRY).retryCount(1).build();
+		Notification firstSms = Notification.builder().id(2L).type(NotificationType.SMS)
+				.status(NotificationStatus.RETRY).retryCount(1).build();
+		Notification secondSms = Notification.builder().id(3L).type(NotificationType.SMS)
+				.status(NotificationStatus.RETRY).retryCount(1).build();
+		when(notificationRepository.findDueRetries(any(LocalDateTime.class), eq(0L), any(Pageable.class)))
+				.thenReturn(List.of(email, firstSms, secondSms));
+
+		notificationService.retryFailedNotifications();
+
+		verify(notificationRepository, times(1)).claimForRetry(List.of(2L));
+		verify(outboxService, times(1)).enqueueAll(List.of(firstSms));
+		// Parked past the open period without using up an attempt
+		LocalDateTime openUntil = LocalDateTime.now().plusSeconds(29);
+		assertTrue(email.getNextRetryAt().isAfter(openUntil));
+		assertTrue(secondSms.getNextRetryAt().isAfter(openUntil));
+		assertEquals(1, email.getRetryCount());
+		assertEquals(NotificationStatus.RETRY, secondSms.getStatus());
+	}
+
+	@Test
+	void testCreateNotificationsInBulk() {
+		User otherUser = new User();
+		otherUser.setId(2L);
+
+		when(userCache.getAll(anyCollection())).thenReturn(Map.of(1L, testUser, 2L, otherUser));
+		when(userRepository.getReferenceById(2L)).thenReturn(otherUser);
+		when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			List<Notification> notifications = invocation.getArgument(0);
+			long id = 100L;
+			for (Notification notification : notifications) {
+				notification.setId(id++);
+			}
+			return notifications;
+		});
+		List<NotificationRequest> requests = List.of(
+				new NotificationRequest(1L, NotificationType.EMAIL, "First", "Subject"),
+				new NotificationRequest(3L, NotificationType.SMS, "Unknown user", null),
+				new NotificationRequest(2L, NotificationType.IN_APP, "Second", null),
+				new NotificationRequest(1L, NotificationType.SMS, " ", null));
+
+		List<BulkNotificationResult> results = notificationService.createNotifications(requests);
+
+		assertEquals(4, results.size());
+		assertTrue(results.get(0).isAccepted());
+		assertEquals(100L, results.get(0).getNotificationId());
+		assertFalse(results.get(1).isAccepted());
+		assertEquals("User not found with ID: 3", results.get(1).getError());
+		assertTrue(results.get(2).isAccepted());
+		assertEquals(101L, results.get(2).getNotificationId());
+		assertFalse(results.get(3).isAccepted());
+
+		verify(userCache, times(1)).getAll(anyCollection());
+		verify(userRepository, never()).findById(anyLong());
+		// Both users received one notification, so a single counter update covers them
+		verify(userRepository, times(1)).adjustUnreadCount(anyList(), eq(1L));
+		verify(notificationRepository, times(1)).saveAll(anyList());
+		verify(outboxService, times(1)).enqueueAll(argThat(notifications -> notifications.size() == 2));
+	}
+
+	@Test
+	void testTemplatedNotificationsStoreOnlyTheirVariables() {
+		when(userCache.getAll(anyCollection())).thenReturn(Map.of(1L, testUser));
+		when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(templateService.validate("order-shipped", Map.of("order", "42"))).thenReturn(null);
+		when(templateService.validate("order-shipped", Map.of())).thenReturn("Missing template variable: order");
+
+		NotificationRequest templated = new NotificationRequest();
+		templated.setUserId(1L);
+		templated.setType(NotificationType.EMAIL);
+		templated.setTemplateId("order-shipped");
+		templated.setVariables(Map.of("order", "42"));
+		NotificationRequest incomplete = new NotificationRequest();
+		incomplete.setUserId(1L);
+		incomplete.setType(NotificationType.EMAIL);
+		incomplete.setTemplateId("order-shipped");
+		incomplete.setVariables(Map.of());
+
+		List<BulkNotificationResult> results = notificationService.createNotifications(List.of(templated, incomplete));
+
+		assertTrue(results.get(0).isAccepted());
+		assertEquals("Missing template variable: order", results.get(1).getError());
+		verify(notificationRepository).saveAll(argThat(notifications -> {
+			Notification saved = notifications.iterator().next();
+			return saved.getContent() == null && saved.getSubject() == null
+					&& "order-shipped".equals(saved.getTemplateId())
+					&& Map.of("order", "42").equals(saved.getTemplateVariables());
+		}));
+	}
+
+	@Test
+	void testRetryDelayGrowsExponentiallyWithJitter() {
+		// Defaults: 1s initial delay, doubling, capped at 5 minutes, half of each delay is jitter
+		for (int i = 0; i < 100; i++) {
+			assertBetween(500, 1000, notificationService.retryDelay(1));
+			assertBetween(1000, 2000, notificationService.retryDelay(2));
+			assertBetween(4000, 8000, notificationService.retryDelay(4));
+			assertBetween(150000, 300000, notificationService.retryDelay(20));
+		}
+	}
+
+	@Test
+	void testMaxRetryCountIsConfigurable() {
+		properties.getRetry().setMaxRetryCount(1);
+		when(notificationRepository.findById(1L)).thenReturn(Optional.of(testNotification));
+
+		notificationService.markNotificationAsFailedWithRetry(1L);
+
+		assertEquals(NotificationStatus.FAILED, testNotification.getStatus());
+		assertNull(testNotification.getNextRetryAt());
+	}
+
+	private static void assertBetween(long minMillis, long maxMillis, Duration actual) {
+		assertTrue(actual.toMillis() >= minMillis && actual.toMillis() <= maxMillis,
+				"Expected delay between " + minMillis + " and " + maxMillis + " ms but was " + actual.toMillis());
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.OutboxEvent;
+import com.example.notification.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.ConnectException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class OutboxServiceTests {
+
+	private static final String TRACE_PARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+	@Mock
+	private OutboxEventRepository outboxEventRepository;
+
+	@Mock
+	private RabbitTemplate rabbitTemplate;
+
+	private SimpleMeterRegistry meterRegistry;
+	private OutboxService outboxService;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		outboxService = new OutboxService(outboxEventRepository, rabbitTemplate, new NotificationProperties(), meterRegistry);
+
+		List<OutboxEvent> events = List.of(
+				OutboxEvent.builder().id(1L).notificationId(10L).exchange("notification.exchange").routingKey("EMAIL")
+						.createdAt(LocalDateTime.now().minusSeconds(30)).build(),
+				OutboxEvent.builder().id(2L).notificationId(11L).exchange("notification.exchange").routingKey("SMS")
+						.traceParent(TRACE_PARENT).createdAt(LocalDateTime.now()).build());
+		when(outboxEventRepository.findUnpublished(any(Pageable.class))).thenReturn(events);
+	}
+
+	@Test
+	void testPublishPendingBatchWaitsForConfirmsAndMarksPublished() {
+		when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+				((RabbitOperations.OperationsCallback<?>) invocation.getArgument(0)).doInRabbit(rabbitTemplate));
+
+		int published = outboxService.publishPendingBatch();
+
+		assertEquals(2, published);
+		verify(rabbitTemplate, times(1)).invoke(any());
+		verify(rabbitTemplate).convertAndSend(eq("notification.exchange"), eq("EMAIL"), eq((Object) 10L),
+				any(MessagePostProcessor.class));
+		ArgumentCaptor<MessagePostProcessor> postProcessor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+		verify(rabbitTemplate).convertAndSend(eq("notification.exchange"), eq("SMS"), eq((Object) 11L),
+				postProcessor.capture());
+		Message message = postProcessor.getValue().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+		assertEquals(TRACE_PARENT, message.getMessageProperties().getHeader(NotificationTracing.TRACE_PARENT_HEADER));
+		assertNotNull(message.getMessageProperties().getTimestamp());
+		verify(rabbitTemplate).waitForConfirmsOrDie(anyLong());
+		verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+		assertEquals(2.0, meterRegistry.get("notification.outbox.published").counter().count());
+		assertEquals(0.0, meterRegistry.get("notification.outbox.lag").gauge().value());
+	}
+
+	@Test
+	void testPublishFailureLeavesEventsPendingAndReportsLag() {
+		when(rabbitTemplate.invoke(any())).thenThrow(new AmqpConnectException(new ConnectException("Connection refused")));
+
+		assertThrows(AmqpConnectException.class, () -> outboxService.publishPendingBatch());
+
+		verify(outboxEventRepository, never()).markPublished(anyList(), any());
+		assertTrue(meterRegistry.get("notification.outbox.lag").gauge().value() >= 30.0);
+	}
+}
@@ -0,0 +1,205 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationPriority;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+// Not picked up by the default surefire includes; run with
+// mvn test -Dtest=PriorityLaneBenchmark
+public class PriorityLaneBenchmark {
+
+	private static final int STANDARD_BACKLOG = 1_000_000;
+	private static final long HIGH_ID_BASE = 1L << 40;
+	private static final int HIGH_MESSAGES = 500;
+	private static final long HIGH_INTERVAL_MS = 10;
+	private static final long CHANNEL_LATENCY_MS = 5;
+
+	// Mirrors the default email lanes
+	private static final int STANDARD_CONSUMERS = 4;
+	private static final int STANDARD_BATCH_SIZE = 50;
+	private static final int PRIORITY_CONSUMERS = 2;
+	private static final int PRIORITY_BATCH_SIZE = 10;
+	private static final long PRIORITY_RECEIVE_TIMEOUT_MS = 10;
+
+	private final Map<Long, Long> enqueuedAt = new ConcurrentHashMap<>();
+	private final List<Long> highLatenciesNanos = Collections.synchronizedList(new ArrayList<>());
+	private final LongAdder standardSent = new LongAdder();
+
+	@Test
+	void highPriorityLatencyStaysBoundedBehindStandardBacklog() throws Exception {
+		NotificationProcessor processor = processorWithSimulatedLatency();
+
+		// Consumers pull from in-memory queues the same way listener containers share each lane's queue
+		BlockingQueue<Long> standardQueue = new LinkedBlockingQueue<>();
+		for (long id = 1; id <= STANDARD_BACKLOG; id++) {
+			standardQueue.add(id);
+		}
+		BlockingQueue<Long> priorityQueue = new LinkedBlockingQueue<>();
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService consumers = Executors.newFixedThreadPool(STANDARD_CONSUMERS + PRIORITY_CONSUMERS);
+		for (int i = 0; i < STANDARD_CONSUMERS; i++) {
+			consumers.execute(() -> consume(processor, standardQueue, STANDARD_BATCH_SIZE, 100, running));
+		}
+		for (int i = 0; i < PRIORITY_CONSUMERS; i++) {
+			consumers.execute(() -> consume(processor, priorityQueue, PRIORITY_BATCH_SIZE,
+					PRIORITY_RECEIVE_TIMEOUT_MS, running));
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < HIGH_MESSAGES; i++) {
+			long id = HIGH_ID_BASE + i;
+			enqueuedAt.put(id, System.nanoTime());
+			priorityQueue.add(id);
+			Thread.sleep(HIGH_INTERVAL_MS);
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (highLatenciesNanos.size() < HIGH_MESSAGES && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+		running.set(false);
+		consumers.shutdown();
+		assertTrue(consumers.awaitTermination(1, TimeUnit.MINUTES));
+
+		List<Long> latencies = new ArrayList<>(highLatenciesNanos);
+		Collections.sort(latencies);
+		double standardRate = standardSent.sum() / seconds;
+		System.out.printf("standard backlog: %,d queued, %,d sent (%,.0f/sec), %,d left%n",
+				STANDARD_BACKLOG, standardSent.sum(), standardRate, standardQueue.size());
+		System.out.printf("HIGH latency ms: p50=%.1f p99=%.1f max=%.1f (%d messages)%n",
+				millis(percentile(latencies, 0.50)), millis(percentile(latencies, 0.99)),
+				millis(latencies.get(latencies.size() - 1)), latencies.size());
+		// With a single queue a HIGH message would be delivered after everything ahead of it
+		System.out.printf("single queue: HIGH would wait ~%,.0f sec behind the backlog%n",
+				STANDARD_BACKLOG / standardRate);
+
+		assertEquals(HIGH_MESSAGES, latencies.size());
+		assertTrue(standardQueue.size() > STANDARD_BACKLOG / 2, "Backlog drained during the run");
+		assertTrue(millis(percentile(latencies, 0.99)) < 250,
+				"HIGH p99 should not depend on the standard backlog: " + millis(percentile(latencies, 0.99)));
+	}
+
+	// A batch is delivered once it is full or receiveTimeout passes without another message
+	private static void consume(NotificationProcessor processor, BlockingQueue<Long> queue, int batchSize,
+								long receiveTimeoutMs, AtomicBoolean running) {
+		try {
+			while (running.get()) {
+				List<Long> batch = new ArrayList<>(batchSize);
+				Long first = queue.poll(receiveTimeoutMs, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				while (batch.size() < batchSize) {
+					Long next = queue.poll(receiveTimeoutMs, TimeUnit.MILLISECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+				}
+				processor.processNotifications(batch);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private NotificationProcessor processorWithSimulatedLatency() {
+		User user = new User(1L, "Bench User", "bench@example.com", "+1234567890", true, true, true);
+
+		NotificationRepository notificationRepository = mock(NotificationRepository.class);
+		when(notificationRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+			Iterable<Long> ids = invocation.getArgument(0);
+			List<Notification> notifications = new ArrayList<>();
+			for (Long id : ids) {
+				notifications.add(Notification.builder()
+						.id(id).user(user).type(NotificationType.EMAIL)
+						.priority(id >= HIGH_ID_BASE ? NotificationPriority.HIGH : NotificationPriority.NORMAL)
+						.status(NotificationStatus.PENDING).build());
+			}
+			return notifications;
+		});
+
+		// Standard sends alone can fill the channel's in-flight window
+		NotificationProperties properties = new NotificationProperties();
+		properties.getChannels().getEmail().setMaxInFlight(STANDARD_CONSUMERS * STANDARD_BATCH_SIZE / 2);
+
+		ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+		ChannelSender emailSender = new ChannelSender() {
+			@Override
+			public NotificationType type() {
+				return NotificationType.EMAIL;
+			}
+
+			@Override
+			public CompletableFuture<DeliveryResult> send(Notification notification) {
+				return CompletableFuture.supplyAsync(() -> {
+					sleep(CHANNEL_LATENCY_MS);
+					Long enqueued = enqueuedAt.get(notification.getId());
+					if (enqueued != null) {
+						highLatenciesNanos.add(System.nanoTime() - enqueued);
+					} else {
+						standardSent.increment();
+					}
+					return DeliveryResult.delivered();
+				}, sendExecutor);
+			}
+		};
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		NotificationTracing tracing = new NotificationTracing(Tracer.NOOP, Propagator.NOOP);
+		LogSampler logSampler = new LogSampler(properties);
+		NotificationService notificationService = new NotificationService(notificationRepository,
+				null, null, null, null, null, null, null, null, null, tracing, logSampler, meterRegistry, properties, null);
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user));
+		return new NotificationProcessor(notificationRepository, notificationService,
+				new ChannelSenderRegistry(List.of(emailSender), properties, meterRegistry),
+				new UserCache(userRepository, properties, meterRegistry), tracing, logSampler, meterRegistry);
+	}
+
+	private static long percentile(List<Long> sorted, double p) {
+		return sorted.get(Math.min(sorted.size() - 1, (int) Math.ceil(p * sorted.size()) - 1));
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
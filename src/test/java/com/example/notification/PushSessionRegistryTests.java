@@ -0,0 +1,86 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.dto.InboxItem;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PushSessionRegistryTests {
+
+	@Mock
+	private ExecutorService executor;
+
+	// Drain tasks are held here instead of running, as if every client were slow to read
+	private final Queue<Runnable> drains = new ArrayDeque<>();
+
+	private SimpleMeterRegistry meterRegistry;
+	private PushSessionRegistry registry;
+
+	@BeforeEach
+	void setUp() {
+		doAnswer(invocation -> drains.add(invocation.getArgument(0))).when(executor).execute(any(Runnable.class));
+		NotificationProperties properties = new NotificationProperties();
+		properties.getPush().setBufferSize(2);
+		properties.getPush().setMaxSessionsPerUser(2);
+		meterRegistry = new SimpleMeterRegistry();
+		registry = new PushSessionRegistry(properties, executor, meterRegistry);
+	}
+
+	@Test
+	void testPushReachesEveryConnectionOfTheUser() {
+		registry.open(1L);
+		registry.open(1L);
+
+		assertEquals(2, registry.push(1L, item(10L)));
+		assertEquals(0, registry.push(2L, item(11L)));
+		assertEquals(2.0, meterRegistry.get("notification.push.sessions").gauge().value());
+		assertEquals(1.0, meterRegistry.get("notification.push").tag("outcome", "offline").counter().count());
+	}
+
+	@Test
+	void testOpeningBeyondTheLimitClosesTheOldestConnection() {
+		PushSession oldest = registry.open(1L);
+		registry.open(1L);
+		registry.open(1L);
+
+		assertTrue(oldest.isClosed());
+		assertEquals(2, registry.push(1L, item(10L)));
+	}
+
+	@Test
+	void testSlowConnectionIsClosedWhenItsBufferIsFull() {
+		PushSession session = registry.open(1L);
+
+		assertEquals(1, registry.push(1L, item(10L)));
+		assertEquals(1, registry.push(1L, item(11L)));
+		// One drain task at a time, however many events are waiting
+		assertEquals(1, drains.size());
+
+		assertEquals(0, registry.push(1L, item(12L)));
+		assertTrue(session.isClosed());
+		assertFalse(registry.isConnected(1L));
+		assertEquals(1.0, meterRegistry.get("notification.push").tag("outcome", "overflow").counter().count());
+	}
+
+	private static InboxItem item(Long id) {
+		return new InboxItem(id, NotificationType.IN_APP, "Subject", "Content", NotificationStatus.SENT, false,
+				LocalDateTime.now(), LocalDateTime.now());
+	}
+}
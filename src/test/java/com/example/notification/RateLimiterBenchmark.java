@@ -0,0 +1,73 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.NotificationType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not picked up by the default surefire includes; run with
+// mvn test -Dtest=RateLimiterBenchmark
+public class RateLimiterBenchmark {
+
+	private static final int OPERATIONS_PER_THREAD = 200_000;
+	private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+	// Few users means many threads hitting the same buckets; many users spreads them out
+	private static final int[] USER_COUNTS = {1, 100, 100_000};
+
+	@Test
+	void acquireThroughputUnderContention() throws Exception {
+		NotificationProperties properties = new NotificationProperties();
+		properties.getChannels().getEmail().setRateLimitPerMinute(600);
+		properties.getChannels().getEmail().setRateLimitBurst(50);
+
+		System.out.printf("%-8s %-8s %15s %12s%n", "users", "threads", "acquires/sec", "allowed");
+		for (int users : USER_COUNTS) {
+			for (int threads : THREAD_COUNTS) {
+				RateLimiter rateLimiter = new RateLimiter(properties);
+				LongAdder allowed = new LongAdder();
+				double perSecond = run(rateLimiter, users, threads, allowed);
+				System.out.printf("%-8d %-8d %,15.0f %12d%n", users, threads, perSecond, allowed.sum());
+
+				assertTrue(rateLimiter.trackedUsers() <= users);
+			}
+		}
+	}
+
+	private double run(RateLimiter rateLimiter, int users, int threads, LongAdder allowed) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>(threads);
+		for (int t = 0; t < threads; t++) {
+			workers.add(Thread.ofPlatform().start(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				long granted = 0;
+				for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+					if (rateLimiter.tryAcquire(random.nextInt(users), NotificationType.EMAIL)) {
+						granted++;
+					}
+				}
+				allowed.add(granted);
+			}));
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		double seconds = (System.nanoTime() - begin) / 1_000_000_000.0;
+		return (double) threads * OPERATIONS_PER_THREAD / seconds;
+	}
+}
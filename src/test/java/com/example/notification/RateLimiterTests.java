@@ -0,0 +1,55 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.NotificationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RateLimiterTests {
+
+	private final AtomicLong now = new AtomicLong();
+
+	private RateLimiter rateLimiter;
+
+	@BeforeEach
+	void setUp() {
+		NotificationProperties properties = new NotificationProperties();
+		properties.getChannels().getSms().setRateLimitPerMinute(6);
+		properties.getChannels().getSms().setRateLimitBurst(3);
+		rateLimiter = new RateLimiter(properties, now::get);
+	}
+
+	@Test
+	void testBurstThenOneTokenPerInterval() {
+		for (int i = 0; i < 3; i++) {
+			assertTrue(rateLimiter.tryAcquire(1L, NotificationType.SMS));
+		}
+		assertFalse(rateLimiter.tryAcquire(1L, NotificationType.SMS));
+
+		// 6 per minute refills one token every 10 seconds
+		now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+		assertTrue(rateLimiter.tryAcquire(1L, NotificationType.SMS));
+		assertFalse(rateLimiter.tryAcquire(1L, NotificationType.SMS));
+	}
+
+	@Test
+	void testBucketsAreIndependentPerUserAndChannel() {
+		for (int i = 0; i < 3; i++) {
+			rateLimiter.tryAcquire(1L, NotificationType.SMS);
+		}
+
+		assertFalse(rateLimiter.tryAcquire(1L, NotificationType.SMS));
+		assertTrue(rateLimiter.tryAcquire(2L, NotificationType.SMS));
+		// Email has no limit configured
+		assertTrue(rateLimiter.tryAcquire(1L, NotificationType.EMAIL));
+	}
+}
@@ -0,0 +1,116 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.repository.ArchivedNotificationRepository;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.NotificationRepository.ArchiveCandidate;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RetentionServiceTests {
+
+	@Mock
+	private NotificationRepository notificationRepository;
+
+	@Mock
+	private ArchivedNotificationRepository archivedRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final NotificationProperties properties = new NotificationProperties();
+
+	private RetentionService retentionService;
+
+	@BeforeEach
+	void setUp() {
+		properties.getRetention().setBatchSize(3);
+		retentionService = new RetentionService(notificationRepository, archivedRepository, userRepository,
+				properties, new SimpleMeterRegistry(), transactionManager);
+	}
+
+	@Test
+	void testMovesChunksUntilNoneAreLeftAndReleasesUnreadCounts() {
+		LocalDateTime cutoff = LocalDateTime.now();
+		when(notificationRepository.findArchivable(cutoff, 0L, PageRequest.of(0, 3)))
+				.thenReturn(List.of(candidate(1L, 10L, false), candidate(2L, 10L, false), candidate(4L, 20L, true)));
+		when(notificationRepository.findArchivable(cutoff, 4L, PageRequest.of(0, 3)))
+				.thenReturn(List.of(candidate(7L, 20L, false)));
+
+		assertEquals(4, retentionService.archiveCreatedBefore(cutoff));
+
+		verify(archivedRepository).archive(eq(List.of(1L, 2L, 4L)), any(LocalDateTime.class));
+		verify(notificationRepository).deleteByIds(List.of(1L, 2L, 4L));
+		verify(archivedRepository).archive(eq(List.of(7L)), any(LocalDateTime.class));
+		verify(notificationRepository).deleteByIds(List.of(7L));
+		// Archived rows leave the unread count; rows already read were not counted
+		verify(userRepository).adjustUnreadCount(List.of(10L), -2);
+		verify(userRepository).adjustUnreadCount(List.of(20L), -1);
+		// A short chunk means nothing older is left, so no further query
+		verify(notificationRepository, times(2)).findArchivable(any(), anyLong(), any());
+	}
+
+	@Test
+	void testRunStopsAfterMaxBatches() {
+		properties.getRetention().setMaxBatchesPerRun(2);
+		when(notificationRepository.findArchivable(any(), anyLong(), any())).thenAnswer(invocation -> {
+			long afterId = invocation.getArgument(1);
+			return List.of(candidate(afterId + 1, 10L, true), candidate(afterId + 2, 10L, true),
+					candidate(afterId + 3, 10L, true));
+		});
+
+		assertEquals(6, retentionService.archiveCreatedBefore(LocalDateTime.now()));
+
+		verify(notificationRepository, times(2)).findArchivable(any(), anyLong(), any());
+		verify(userRepository, never()).adjustUnreadCount(any(), anyLong());
+	}
+
+	@Test
+	void testDisabledRetentionKeepsEverything() {
+		properties.getRetention().setEnabled(false);
+
+		assertEquals(0, retentionService.archiveExpired());
+
+		verifyNoInteractions(notificationRepository, archivedRepository, userRepository);
+	}
+
+	private static ArchiveCandidate candidate(long id, long userId, boolean read) {
+		return new ArchiveCandidate() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public Long getUserId() {
+				return userId;
+			}
+
+			@Override
+			public boolean isRead() {
+				return read;
+			}
+		};
+	}
+}
@@ -0,0 +1,137 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationType;
+import com.example.notification.model.User;
+import com.example.notification.repository.NotificationRepository;
+import com.example.notification.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ScheduledDeliveryServiceTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 1, 5, 8, 59, 50);
+
+	@Mock
+	private NotificationRepository notificationRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private RateLimiter rateLimiter;
+
+	@Mock
+	private OutboxService outboxService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final AtomicLong now = new AtomicLong(START.toInstant(ZoneOffset.UTC).toEpochMilli());
+
+	private ScheduledDeliveryService service;
+
+	@BeforeEach
+	void setUp() {
+		NotificationProperties properties = new NotificationProperties();
+		properties.getScheduling().setMaxReleasePerSecond(20);
+		Clock clock = new Clock() {
+			@Override
+			public ZoneId getZone() {
+				return ZoneOffset.UTC;
+			}
+
+			@Override
+			public Clock withZone(ZoneId zone) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public Instant instant() {
+				return Instant.ofEpochMilli(now.get());
+			}
+		};
+		when(rateLimiter.tryAcquire(anyLong(), any())).thenReturn(true);
+		service = new ScheduledDeliveryService(notificationRepository, userRepository, rateLimiter, outboxService,
+				properties, transactionManager, clock);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testDueNotificationsAreReleasedAtBoundedRate() {
+		// 30 notifications for the same moment, 09:00:00
+		User user = new User(1L, "Alice", "alice@example.com", null, true, true, true);
+		LocalDateTime nine = START.plusSeconds(10);
+		List<NotificationRepository.ScheduledSlot> slots = new ArrayList<>();
+		List<Notification> rows = new ArrayList<>();
+		for (long id = 1; id <= 30; id++) {
+			slots.add(slot(id, nine));
+			rows.add(Notification.builder().id(id).user(user).type(NotificationType.EMAIL)
+					.status(NotificationStatus.SCHEDULED).read(true).scheduledAt(nine).build());
+		}
+		when(notificationRepository.findScheduledUntil(any(LocalDateTime.class), any(Pageable.class)))
+				.thenReturn(slots)
+				.thenReturn(List.of());
+		when(notificationRepository.findScheduledForRelease(anyCollection())).thenAnswer(invocation -> {
+			Collection<Long> ids = invocation.getArgument(0);
+			return rows.stream().filter(n -> ids.contains(n.getId())).toList();
+		});
+
+		service.loadHorizon();
+		assertEquals(30, service.inWheel());
+		assertEquals(0, service.releaseDue());
+
+		// 20 per second with 100 ms ticks allows 2 per tick
+		now.addAndGet(10_000);
+		assertEquals(2, service.releaseDue());
+		assertEquals(28, service.readyCount());
+
+		ArgumentCaptor<List<Notification>> released = ArgumentCaptor.forClass(List.class);
+		verify(outboxService).enqueueAll(released.capture());
+		assertEquals(List.of(1L, 2L), released.getValue().stream().map(Notification::getId).toList());
+		assertEquals(NotificationStatus.PENDING, rows.get(0).getStatus());
+		assertFalse(rows.get(0).isRead());
+		verify(userRepository).adjustUnreadCount(List.of(1L), 2);
+		assertEquals(NotificationStatus.SCHEDULED, rows.get(2).getStatus());
+	}
+
+	private NotificationRepository.ScheduledSlot slot(Long id, LocalDateTime scheduledAt) {
+		return new NotificationRepository.ScheduledSlot() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public LocalDateTime getScheduledAt() {
+				return scheduledAt;
+			}
+		};
+	}
+}
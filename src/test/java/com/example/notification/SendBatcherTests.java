@@ -0,0 +1,68 @@
+package com.example.notification.service;
+
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationType;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SendBatcherTests {
+
+	private static final int NOTIFICATIONS = 500;
+	private static final long PROVIDER_LATENCY_MS = 20;
+
+	@Test
+	void testBatchingCutsProviderRoundTrips() {
+		StubProvider unbatched = new StubProvider(PROVIDER_LATENCY_MS, 1.0);
+		List<DeliveryResult> unbatchedResults = sendAll(unbatched, 1);
+
+		StubProvider batched = new StubProvider(PROVIDER_LATENCY_MS, 1.0);
+		List<DeliveryResult> batchedResults = sendAll(batched, 50);
+
+		assertEquals(NOTIFICATIONS, unbatched.calls());
+		assertEquals(NOTIFICATIONS / 50, batched.calls());
+		assertTrue(batchedResults.stream().allMatch(DeliveryResult::isDelivered));
+		assertEquals(unbatchedResults.size(), batchedResults.size());
+	}
+
+	@Test
+	void testPartialBatchIsFlushedAfterDelay() {
+		StubProvider provider = new StubProvider(0, 1.0);
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+			 SendBatcher batcher = new SendBatcher("test", 100, 20, provider::sendBatch, executor)) {
+
+			DeliveryResult result = batcher.submit(notification(1L)).join();
+
+			assertTrue(result.isDelivered());
+			assertEquals(1, provider.calls());
+		}
+	}
+
+	private List<DeliveryResult> sendAll(StubProvider provider, int batchSize) {
+		// A bounded pool, like a provider connection pool, so unbatched sends queue up behind each other.
+		// The flush delay is long enough that only full batches are sent, even on a slow machine
+		try (ExecutorService executor = Executors.newFixedThreadPool(4);
+			 SendBatcher batcher = new SendBatcher("test", batchSize, 1000, provider::sendBatch, executor)) {
+
+			List<CompletableFuture<DeliveryResult>> futures = new ArrayList<>(NOTIFICATIONS);
+			for (long id = 0; id < NOTIFICATIONS; id++) {
+				futures.add(batcher.submit(notification(id)));
+			}
+			return futures.stream().map(CompletableFuture::join).toList();
+		}
+	}
+
+	private Notification notification(long id) {
+		return Notification.builder().id(id).type(NotificationType.EMAIL).content("Hello").build();
+	}
+}
@@ -0,0 +1,93 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.dto.InboxItem;
+import com.example.notification.dto.TemplateRequest;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationStatus;
+import com.example.notification.model.NotificationTemplate;
+import com.example.notification.model.NotificationType;
+import com.example.notification.repository.NotificationTemplateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TemplateServiceTests {
+
+	@Mock
+	private NotificationTemplateRepository templateRepository;
+
+	private TemplateService templateService;
+
+	@BeforeEach
+	void setUp() {
+		NotificationTemplate shipped = new NotificationTemplate("order-shipped", "Order {{order}} shipped",
+				"Hi {{name}}, order {{order}} is on its way.", LocalDateTime.now());
+		when(templateRepository.findById("order-shipped")).thenReturn(Optional.of(shipped));
+		templateService = new TemplateService(templateRepository, new NotificationProperties(), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void testTemplateIsLoadedAndCompiledOnce() {
+		Notification notification = Notification.builder().id(1L).type(NotificationType.EMAIL)
+				.templateId("order-shipped").templateVariables(Map.of("name", "Ada", "order", "42")).build();
+
+		for (int i = 0; i < 3; i++) {
+			RenderedMessage message = templateService.render(notification);
+			assertEquals("Order 42 shipped", message.subject());
+			assertEquals("Hi Ada, order 42 is on its way.", message.content());
+		}
+		verify(templateRepository, times(1)).findById("order-shipped");
+	}
+
+	@Test
+	void testValidationReportsUnknownTemplatesAndMissingVariables() {
+		assertNull(templateService.validate("order-shipped", Map.of("name", "Ada", "order", "42")));
+		assertEquals("Missing template variable: order", templateService.validate("order-shipped", Map.of("name", "Ada")));
+		assertEquals("Template not found with ID: welcome", templateService.validate("welcome", Map.of()));
+	}
+
+	@Test
+	void testInboxItemIsRenderedInPlace() {
+		InboxItem item = new InboxItem(1L, NotificationType.IN_APP, null, null, NotificationStatus.SENT, false,
+				LocalDateTime.now(), LocalDateTime.now(), "order-shipped", Map.of("name", "Ada", "order", "42"));
+
+		templateService.render(item);
+
+		assertEquals("Order 42 shipped", item.getSubject());
+		assertEquals("Hi Ada, order 42 is on its way.", item.getContent());
+	}
+
+	@Test
+	void testChangedTextUnderAnExistingIdIsRejected() {
+		TemplateRequest same = new TemplateRequest("order-shipped", "Order {{order}} shipped",
+				"Hi {{name}}, order {{order}} is on its way.");
+		TemplateRequest changed = new TemplateRequest("order-shipped", "Order {{order}} shipped", "Shipped!");
+
+		assertNotNull(templateService.register(same));
+		assertThrows(IllegalArgumentException.class, () -> templateService.register(changed));
+		verify(templateRepository, never()).save(any());
+	}
+
+	@Test
+	void testMalformedIdAndEmptyContentAreRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> templateService.register(new TemplateRequest("order shipped", null, "Shipped")));
+		assertThrows(IllegalArgumentException.class,
+				() -> templateService.register(new TemplateRequest("order-shipped", null, " ")));
+		verify(templateRepository, never()).save(any());
+	}
+}
@@ -0,0 +1,46 @@
+package com.example.notification.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not picked up by the default surefire includes; run with
+// mvn test -Dtest=TimingWheelBenchmark
+public class TimingWheelBenchmark {
+
+	private static final int ENTRIES = 1_000_000;
+	private static final long TICK_MS = 100;
+	private static final int WHEEL_SIZE = 64;
+	private static final long HORIZON_MS = 300_000;
+
+	@Test
+	void addAndExpireAMillionEntries() {
+		// Everything at one popular send time, then the same number spread evenly over the horizon
+		run("single due time", id -> HORIZON_MS / 2);
+		run("spread over horizon", id -> ThreadLocalRandom.current().nextLong(TICK_MS, HORIZON_MS));
+	}
+
+	private void run(String label, LongUnaryOperator dueOffset) {
+		TimingWheel wheel = new TimingWheel(TICK_MS, WHEEL_SIZE, 3, 0);
+		LongAdder expired = new LongAdder();
+
+		long start = System.nanoTime();
+		for (long id = 0; id < ENTRIES; id++) {
+			assertTrue(wheel.add(id, dueOffset.applyAsLong(id), ignored -> expired.increment()));
+		}
+		long added = System.nanoTime();
+		for (long now = 0; now <= HORIZON_MS; now += TICK_MS) {
+			wheel.advance(now, ignored -> expired.increment());
+		}
+		long end = System.nanoTime();
+
+		System.out.printf("%-22s add %,12.0f/sec   advance over %,d ticks %,8.1f ms%n", label,
+				ENTRIES / ((added - start) / 1_000_000_000.0), HORIZON_MS / TICK_MS, (end - added) / 1_000_000.0);
+		assertEquals(ENTRIES, expired.sum());
+		assertEquals(0, wheel.size());
+	}
+}
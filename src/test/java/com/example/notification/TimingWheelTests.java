@@ -0,0 +1,54 @@
+package com.example.notification.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TimingWheelTests {
+
+	@Test
+	void testEntriesExpireInTheirTickAcrossLevels() {
+		// 10 ms ticks, 8 buckets: level 0 spans 80 ms, level 1 640 ms, level 2 5120 ms
+		TimingWheel wheel = new TimingWheel(10, 8, 3, 1000);
+		List<Long> expired = new ArrayList<>();
+
+		assertTrue(wheel.add(1L, 1035, expired::add));
+		assertTrue(wheel.add(2L, 1500, expired::add));
+		assertTrue(wheel.add(3L, 4321, expired::add));
+		assertFalse(wheel.add(4L, 1000 + 60_000, expired::add));
+		assertEquals(3, wheel.size());
+
+		wheel.advance(1029, expired::add);
+		assertEquals(List.of(), expired);
+		wheel.advance(1030, expired::add);
+		assertEquals(List.of(1L), expired);
+		wheel.advance(1499, expired::add);
+		assertEquals(List.of(1L), expired);
+		wheel.advance(1500, expired::add);
+		assertEquals(List.of(1L, 2L), expired);
+		wheel.advance(4319, expired::add);
+		assertEquals(List.of(1L, 2L), expired);
+		wheel.advance(4320, expired::add);
+		assertEquals(List.of(1L, 2L, 3L), expired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void testEntryAlreadyDueExpiresImmediately() {
+		TimingWheel wheel = new TimingWheel(10, 8, 2, 1000);
+		List<Long> expired = new ArrayList<>();
+
+		wheel.add(1L, 995, expired::add);
+		wheel.add(2L, 1009, expired::add);
+
+		assertEquals(List.of(1L, 2L), expired);
+		assertEquals(0, wheel.size());
+	}
+}
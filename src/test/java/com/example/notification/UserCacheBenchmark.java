@@ -0,0 +1,84 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.User;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not picked up by the default surefire includes; run with
+// mvn test -Dtest=UserCacheBenchmark
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+public class UserCacheBenchmark {
+
+	private static final int USERS = 500;
+	private static final int DISPATCHES = 10_000;
+	private static final int BATCH_SIZE = 50;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void cacheSavesUserReadsPerTenThousandDispatches() {
+		List<User> users = new ArrayList<>(USERS);
+		for (int i = 0; i < USERS; i++) {
+			users.add(new User(null, "Bench User " + i, "bench" + i + "@example.com", null, true, true, true));
+		}
+		List<Long> userIds = userRepository.saveAll(users).stream().map(User::getId).toList();
+
+		// The same recipient mix for both runs: listener batches of 50 with random recipients
+		Random random = new Random(42);
+		List<Set<Long>> batches = new ArrayList<>();
+		for (int i = 0; i < DISPATCHES / BATCH_SIZE; i++) {
+			Set<Long> batch = new HashSet<>();
+			for (int j = 0; j < BATCH_SIZE; j++) {
+				batch.add(userIds.get(random.nextInt(USERS)));
+			}
+			batches.add(batch);
+		}
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		statistics.clear();
+		for (Set<Long> batch : batches) {
+			userRepository.findAllById(batch);
+		}
+		long uncachedQueries = statistics.getPrepareStatementCount();
+		long uncachedRows = statistics.getEntityLoadCount();
+
+		UserCache userCache = new UserCache(userRepository, new NotificationProperties(), new SimpleMeterRegistry());
+		statistics.clear();
+		for (Set<Long> batch : batches) {
+			userCache.getAll(batch);
+		}
+		long cachedQueries = statistics.getPrepareStatementCount();
+		long cachedRows = statistics.getEntityLoadCount();
+
+		System.out.printf("%d dispatches over %d users: without cache %d queries / %d user rows, "
+						+ "with cache %d queries / %d user rows (hit rate %.1f%%)%n",
+				DISPATCHES, USERS, uncachedQueries, uncachedRows, cachedQueries, cachedRows,
+				userCache.stats().hitRate() * 100);
+
+		// Each user is read from the database at most once while it stays cached
+		assertTrue(cachedRows <= USERS);
+		assertTrue(cachedQueries < uncachedQueries);
+	}
+}
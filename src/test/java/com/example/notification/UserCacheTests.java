@@ -0,0 +1,67 @@
+package com.example.notification.service;
+
+import com.example.notification.config.NotificationProperties;
+import com.example.notification.model.User;
+import com.example.notification.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserCacheTests {
+
+	@Mock
+	private UserRepository userRepository;
+
+	private UserCache userCache;
+
+	private User user1;
+	private User user2;
+
+	@BeforeEach
+	void setUp() {
+		userCache = new UserCache(userRepository, new NotificationProperties(), new SimpleMeterRegistry());
+		user1 = new User(1L, "User One", "one@example.com", null, true, true, true);
+		user2 = new User(2L, "User Two", "two@example.com", null, true, false, true);
+	}
+
+	@Test
+	void testBatchLookupLoadsOnlyMisses() {
+		when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+		when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user2));
+
+		userCache.get(1L);
+		Map<Long, User> users = userCache.getAll(Set.of(1L, 2L, 3L));
+
+		assertEquals(Set.of(1L, 2L), users.keySet());
+		// Only the two misses go to the database
+		verify(userRepository).findAllById(argThat(ids -> Set.copyOf((List<Long>) ids).equals(Set.of(2L, 3L))));
+		assertEquals(1, userCache.stats().hitCount());
+		assertEquals(3, userCache.stats().missCount());
+	}
+
+	@Test
+	void testInvalidateForcesReload() {
+		when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
+
+		userCache.get(1L);
+		userCache.get(1L);
+		userCache.invalidate(1L);
+		userCache.get(1L);
+
+		verify(userRepository, times(2)).findById(1L);
+	}
+}